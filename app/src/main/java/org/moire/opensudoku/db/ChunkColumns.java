@@ -0,0 +1,11 @@
+package org.moire.opensudoku.db;
+
+import android.provider.BaseColumns;
+
+/**
+ * Columns of the table of world chunks, {@link #_ID} is the chunk key.
+ */
+public abstract class ChunkColumns implements BaseColumns {
+	public static final String DATA = "data";
+	public static final String UPDATED = "updated";
+}
@@ -34,7 +34,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
 	private static final String TAG = "DatabaseHelper";
 
-	public static final int DATABASE_VERSION = 8;
+	public static final int DATABASE_VERSION = 10;
 
 	private Context mContext;
 
@@ -62,6 +62,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 				+ FolderColumns.NAME + " TEXT"
 				+ ");");
 
+		createWorldTables(db);
+
 		insertFolder(db, 1, mContext.getString(R.string.difficulty_easy));
 		insertSudoku(db, 1, 1, "Easy1", "000000000000000000000000000000000000000000000000000000000000000000000000000000000");
 
@@ -84,11 +86,32 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 		Log.i(TAG, "Upgrading database from version " + oldVersion + " to "
 				+ newVersion + "");
 
+		createWorldTables(db);
 		createIndexes(db);
 	}
 
+	private void createWorldTables(SQLiteDatabase db) {
+		db.execSQL("CREATE TABLE IF NOT EXISTS " + SudokuDatabase.CHUNK_TABLE_NAME + " ("
+				+ ChunkColumns._ID + " INTEGER PRIMARY KEY,"
+				+ ChunkColumns.DATA + " BLOB,"
+				+ ChunkColumns.UPDATED + " INTEGER"
+				+ ");");
+
+		// Z-order keys as primary key make the table itself the spatial index
+		db.execSQL("CREATE TABLE IF NOT EXISTS " + SudokuDatabase.TILE_TABLE_NAME + " ("
+				+ TileColumns._ID + " INTEGER PRIMARY KEY,"
+				+ TileColumns.CHUNK + " INTEGER,"
+				+ TileColumns.X + " INTEGER,"
+				+ TileColumns.Y + " INTEGER,"
+				+ TileColumns.VALUE + " INTEGER"
+				+ ");");
+		db.execSQL("create index if not exists " + SudokuDatabase.TILE_TABLE_NAME +
+				"_idx1 on " +
+				SudokuDatabase.TILE_TABLE_NAME + " (" + TileColumns.CHUNK + ");");
+	}
+
 	private void createIndexes(SQLiteDatabase db) {
-		db.execSQL("create index " + SudokuDatabase.SUDOKU_TABLE_NAME +
+		db.execSQL("create index if not exists " + SudokuDatabase.SUDOKU_TABLE_NAME +
 				"_idx1 on " +
 				SudokuDatabase.SUDOKU_TABLE_NAME + " (" + SudokuColumns.FOLDER_ID + ");");
 	}
@@ -27,9 +27,12 @@ import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteQueryBuilder;
 import android.database.sqlite.SQLiteStatement;
+import org.moire.opensudoku.game.BoardDimension;
 import org.moire.opensudoku.game.CellCollection;
 import org.moire.opensudoku.game.FolderInfo;
 import org.moire.opensudoku.game.SudokuGame;
+import org.moire.opensudoku.game.TileIndex;
+import org.moire.opensudoku.game.World;
 import org.moire.opensudoku.gui.SudokuListFilter;
 
 /**
@@ -52,6 +55,8 @@ public class SudokuDatabase {
 
 	public static final String SUDOKU_TABLE_NAME = "sudoku";
 	public static final String FOLDER_TABLE_NAME = "folder";
+	public static final String CHUNK_TABLE_NAME = "chunk";
+	public static final String TILE_TABLE_NAME = "tile";
 
 	//private static final String TAG = "SudokuDatabase";
 
@@ -326,7 +331,7 @@ public class SudokuDatabase {
 				s.setId(id);
 				s.setCreated(created);
                 CellCollection cells = CellCollection.deserialize(data);
-                cells.fillNext(); // TODO: actually save previously generated next emoji list
+                cells.fillNext(); // data saved before upcoming tiles were saved lacks them
 				s.setCells(cells);
 				s.setLastPlayed(lastPlayed);
 				s.setState(state);
@@ -369,6 +374,9 @@ public class SudokuDatabase {
 	}
 
 	private SQLiteStatement mInsertSudokuStatement;
+	private SQLiteStatement mInsertTileStatement;
+	// number of rows in the tile table, -1 if it may have changed since it was counted
+	private long mTileCount = -1;
 
 	public long importSudoku(long folderID, SudokuImportParams pars) throws SudokuInvalidFormatException {
 		if (pars.data == null) {
@@ -463,10 +471,265 @@ public class SudokuDatabase {
 		db.delete(SUDOKU_TABLE_NAME, SudokuColumns._ID + "=" + sudokuID, null);
 	}
 
+	/**
+	 * Returns cell values of given world chunk.
+	 *
+	 * @param chunkKey Key of the chunk, see {@link org.moire.opensudoku.game.World#chunkKey(int, int)}.
+	 * @return Values, null if chunk has never been saved.
+	 */
+	public byte[] getChunk(long chunkKey) {
+		Cursor c = null;
+		try {
+			SQLiteDatabase db = mOpenHelper.getReadableDatabase();
+			c = db.query(CHUNK_TABLE_NAME, new String[]{ChunkColumns.DATA},
+					ChunkColumns._ID + "=" + chunkKey, null, null, null, null);
+			if (c.moveToFirst()) {
+				return c.getBlob(0);
+			} else {
+				return null;
+			}
+		} finally {
+			if (c != null) c.close();
+		}
+	}
+
+	/**
+	 * Returns true if any world chunk has been saved.
+	 */
+	public boolean hasChunks() {
+		Cursor c = null;
+		try {
+			SQLiteDatabase db = mOpenHelper.getReadableDatabase();
+			c = db.query(CHUNK_TABLE_NAME, new String[]{ChunkColumns._ID},
+					null, null, null, null, null, "1");
+			return c.moveToFirst();
+		} finally {
+			if (c != null) c.close();
+		}
+	}
+
+	/**
+	 * Stores cell values of given world chunk, replacing the previous ones. Placed tiles of
+	 * the chunk are indexed, see {@link #getTiles(int, int, int, int)}.
+	 *
+	 * @param chunkKey  Key of the chunk, see {@link World#chunkKey(int, int)}.
+	 * @param dimension Size of the chunk.
+	 * @param data      Values of the chunk.
+	 */
+	public void saveChunk(long chunkKey, BoardDimension dimension, byte[] data) {
+		ContentValues values = new ContentValues();
+		values.put(ChunkColumns._ID, chunkKey);
+		values.put(ChunkColumns.DATA, data);
+		values.put(ChunkColumns.UPDATED, System.currentTimeMillis());
+
+		SQLiteDatabase db = mOpenHelper.getWritableDatabase();
+		if (mInsertTileStatement == null) {
+			mInsertTileStatement = db.compileStatement(
+					"insert into tile (_id, chunk, x, y, value) values (?, ?, ?, ?, ?)"
+			);
+		}
+
+		db.beginTransaction();
+		try {
+			db.replace(CHUNK_TABLE_NAME, null, values);
+			db.delete(TILE_TABLE_NAME, TileColumns.CHUNK + "=" + chunkKey, null);
+			for (int i = 0; i < data.length; i++) {
+				if (data[i] == 0) {
+					continue;
+				}
+				int x = World.cellX(chunkKey, dimension, i);
+				int y = World.cellY(chunkKey, dimension, i);
+				mInsertTileStatement.bindLong(1, TileIndex.key(x, y));
+				mInsertTileStatement.bindLong(2, chunkKey);
+				mInsertTileStatement.bindLong(3, x);
+				mInsertTileStatement.bindLong(4, y);
+				mInsertTileStatement.bindLong(5, data[i]);
+				mInsertTileStatement.executeInsert();
+			}
+			db.setTransactionSuccessful();
+		} finally {
+			db.endTransaction();
+			mTileCount = -1;
+		}
+	}
+
+	/**
+	 * Returns number of placed tiles in the whole world.
+	 */
+	private long getTileCount() {
+		if (mTileCount < 0) {
+			SQLiteStatement count = mOpenHelper.getReadableDatabase().compileStatement(
+					"select count(*) from " + TILE_TABLE_NAME);
+			try {
+				mTileCount = count.simpleQueryForLong();
+			} finally {
+				count.close();
+			}
+		}
+		return mTileCount;
+	}
+
+	/**
+	 * Returns placed tiles within given box of world cells, in no particular order. Each key
+	 * range of the box is looked up in the index, so the query takes time logarithmic in the
+	 * number of tiles plus the number of tiles returned.
+	 *
+	 * @param minX Left column of the box.
+	 * @param minY Bottom row of the box.
+	 * @param maxX Right column of the box, inclusive.
+	 * @param maxY Top row of the box, inclusive.
+	 * @return Cursor with {@link TileColumns#_ID}, {@link TileColumns#X}, {@link TileColumns#Y}
+	 * and {@link TileColumns#VALUE} columns.
+	 */
+	public Cursor getTiles(int minX, int minY, int maxX, int maxY) {
+		long[] ranges = TileIndex.ranges(minX, minY, maxX, maxY);
+		if (ranges.length == 0) {
+			// empty box, still return a cursor of the right shape
+			ranges = new long[]{0, -1};
+		}
+
+		// ranges may cover cells around the box too, these are filtered out by coordinates
+		StringBuilder where = new StringBuilder("(");
+		for (int i = 0; i < ranges.length; i += 2) {
+			if (i > 0) {
+				where.append(" or ");
+			}
+			where.append(TileColumns._ID).append(" between ").append(ranges[i]).append(" and ").append(ranges[i + 1]);
+		}
+		where.append(") and ").append(TileColumns.X).append(" between ").append(minX).append(" and ").append(maxX)
+				.append(" and ").append(TileColumns.Y).append(" between ").append(minY).append(" and ").append(maxY);
+
+		SQLiteDatabase db = mOpenHelper.getReadableDatabase();
+		return db.query(TILE_TABLE_NAME, new String[]{TileColumns._ID, TileColumns.X, TileColumns.Y, TileColumns.VALUE},
+				where.toString(), null, null, null, null);
+	}
+
+	/**
+	 * Returns keys of placed tiles nearest to given world cell, nearest first. Boxes of growing
+	 * size around the cell are searched until they surely contain the nearest tiles, or hold
+	 * all tiles of the world.
+	 *
+	 * @param x     World x coordinate of the cell.
+	 * @param y     World y coordinate of the cell.
+	 * @param count Number of tiles to return.
+	 * @return {@link TileIndex} keys of at most count tiles, fewer if there are not enough.
+	 */
+	public long[] getNearestTiles(int x, int y, int count) {
+		long total = getTileCount();
+		if (count <= 0 || total == 0) {
+			return new long[0];
+		}
+
+		long radius = 8;
+		while (true) {
+			int minX = (int) Math.max(Integer.MIN_VALUE, x - radius);
+			int minY = (int) Math.max(Integer.MIN_VALUE, y - radius);
+			int maxX = (int) Math.min(Integer.MAX_VALUE, x + radius);
+			int maxY = (int) Math.min(Integer.MAX_VALUE, y + radius);
+			boolean whole = minX == Integer.MIN_VALUE && minY == Integer.MIN_VALUE
+					&& maxX == Integer.MAX_VALUE && maxY == Integer.MAX_VALUE;
+			Cursor c = getTiles(minX, minY, maxX, maxY);
+			long[] keys;
+			long[] distances;
+			try {
+				keys = new long[c.getCount()];
+				distances = new long[c.getCount()];
+				for (int i = 0; c.moveToNext(); i++) {
+					long dx = c.getLong(1) - x;
+					long dy = c.getLong(2) - y;
+					keys[i] = c.getLong(0);
+					distances[i] = dx * dx + dy * dy;
+				}
+			} finally {
+				c.close();
+			}
+
+			int found = Math.min(count, keys.length);
+			selectNearest(keys, distances, found);
+			// tiles outside the box are further than radius, so the box holds the nearest ones
+			// once enough of its tiles are within radius; a larger box finds no more tiles once
+			// this one holds all of them
+			if (whole || keys.length >= total || found == count && distances[found - 1] <= radius * radius) {
+				long[] nearest = new long[found];
+				System.arraycopy(keys, 0, nearest, 0, found);
+				return nearest;
+			}
+			radius *= 2;
+		}
+	}
+
+	/**
+	 * Moves count nearest tiles to the front of the arrays, in order of distance. Only the
+	 * part of the arrays holding the count-th nearest tile is partitioned further (quickselect),
+	 * then the front is sorted.
+	 */
+	private static void selectNearest(long[] keys, long[] distances, int count) {
+		int lo = 0;
+		int hi = keys.length - 1;
+		while (lo < hi) {
+			int split = partition(keys, distances, lo, hi);
+			if (count - 1 <= split) {
+				hi = split;
+			} else {
+				lo = split + 1;
+			}
+		}
+		sortByDistance(keys, distances, 0, count - 1);
+	}
+
+	private static void sortByDistance(long[] keys, long[] distances, int lo, int hi) {
+		while (lo < hi) {
+			int split = partition(keys, distances, lo, hi);
+			// recursing into the smaller side keeps the stack logarithmic
+			if (split - lo < hi - split) {
+				sortByDistance(keys, distances, lo, split);
+				lo = split + 1;
+			} else {
+				sortByDistance(keys, distances, split + 1, hi);
+				hi = split;
+			}
+		}
+	}
+
+	/**
+	 * Partitions given part of the arrays by the distance of its middle tile (Hoare), tiles
+	 * as far as that one are spread over both sides. Returns last index of the nearer side,
+	 * from lo to hi - 1.
+	 */
+	private static int partition(long[] keys, long[] distances, int lo, int hi) {
+		long pivot = distances[(lo + hi) >>> 1];
+		int i = lo - 1;
+		int j = hi + 1;
+		while (true) {
+			do {
+				i++;
+			} while (distances[i] < pivot);
+			do {
+				j--;
+			} while (distances[j] > pivot);
+			if (i >= j) {
+				return j;
+			}
+			swap(keys, distances, i, j);
+		}
+	}
+
+	private static void swap(long[] keys, long[] distances, int i, int j) {
+		long key = keys[i];
+		keys[i] = keys[j];
+		keys[j] = key;
+		long distance = distances[i];
+		distances[i] = distances[j];
+		distances[j] = distance;
+	}
+
 	public void close() {
 		if (mInsertSudokuStatement != null) {
 			mInsertSudokuStatement.close();
 		}
+		if (mInsertTileStatement != null) {
+			mInsertTileStatement.close();
+		}
 
 		mOpenHelper.close();
 	}
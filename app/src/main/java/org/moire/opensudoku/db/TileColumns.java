@@ -0,0 +1,15 @@
+package org.moire.opensudoku.db;
+
+import android.provider.BaseColumns;
+
+/**
+ * Columns of the spatial index of placed tiles. {@link #_ID} is the
+ * {@link org.moire.opensudoku.game.TileIndex} key of the tile's cell, {@link #X} and
+ * {@link #Y} are its world coordinates.
+ */
+public abstract class TileColumns implements BaseColumns {
+	public static final String CHUNK = "chunk";
+	public static final String X = "x";
+	public static final String Y = "y";
+	public static final String VALUE = "value";
+}
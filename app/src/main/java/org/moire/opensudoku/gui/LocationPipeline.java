@@ -0,0 +1,210 @@
+package org.moire.opensudoku.gui;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.location.Location;
+import android.location.LocationListener;
+import android.location.LocationManager;
+import android.os.BatteryManager;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import org.moire.opensudoku.game.LocationFilter;
+import org.moire.opensudoku.game.SamplingPolicy;
+import org.moire.opensudoku.game.TraceRecorder;
+import org.moire.opensudoku.game.World;
+
+/**
+ * Receives GPS fixes on its own background thread and runs them through {@link LocationFilter}.
+ * The {@link World} is moved on GUI thread only when the user enters another cell; if several
+ * cells are entered before GUI thread gets to it, it moves straight to the last one.
+ * <p/>
+ * Fixes are requested as often as {@link SamplingPolicy} needs them, the request is renewed
+ * from the background thread whenever that changes. Fix rate and battery drain of the session
+ * are available to show what it costs.
+ * <p/>
+ * Please note that instance of this class has to be created on GUI thread!
+ * <p/>
+ * You should explicitly call {@link #stop()} when this object is no longer needed.
+ */
+public class LocationPipeline {
+
+	private final Context mContext;
+	private final LocationManager mLocationManager;
+	private final World mWorld;
+	private final Handler mGuiHandler;
+	private final HandlerThread mThread;
+
+	// updated on the background thread only
+	private final LocationFilter mFilter = new LocationFilter(LocationFilter.DEFAULT_HYSTERESIS_M);
+	private final SamplingPolicy mPolicy = new SamplingPolicy();
+
+	// metrics, written on the background thread; requests also on GUI thread by start()
+	private volatile int mFixCount = 0;
+	private final AtomicInteger mRequestCount = new AtomicInteger();
+	private long mStartTime;
+	private float mStartBattery;
+
+	private volatile TraceRecorder mTraceRecorder;
+
+	// last entered cell, x in the lower half, and whether publishing it is already posted
+	private volatile long mLatestCell;
+	private final AtomicBoolean mPublishPosted = new AtomicBoolean(false);
+
+	public LocationPipeline(Context context, World world) {
+		mContext = context;
+		mLocationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+		mWorld = world;
+		mGuiHandler = new Handler();
+		mThread = new HandlerThread("LocationPipeline");
+	}
+
+	public void start() {
+		mStartTime = SystemClock.elapsedRealtime();
+		mStartBattery = getBatteryLevel();
+		mThread.start();
+		requestUpdates();
+	}
+
+	public void stop() {
+		mLocationManager.removeUpdates(mLocationListener);
+		mThread.quit();
+		mGuiHandler.removeCallbacks(mPublish);
+	}
+
+	/**
+	 * Sets recorder of received fixes, null to stop recording them.
+	 */
+	public void setTraceRecorder(TraceRecorder recorder) {
+		mTraceRecorder = recorder;
+	}
+
+	private void requestUpdates() {
+		// renewing the request for the same listener replaces the previous one
+		mRequestCount.incrementAndGet();
+		mLocationManager.requestLocationUpdates(LocationManager.GPS_PROVIDER,
+				mPolicy.getInterval(), mPolicy.getDistance(), mLocationListener, mThread.getLooper());
+	}
+
+	/**
+	 * Returns number of fixes received since {@link #start()}.
+	 *
+	 * @return
+	 */
+	public int getFixCount() {
+		return mFixCount;
+	}
+
+	/**
+	 * Returns average number of fixes per minute since {@link #start()}.
+	 *
+	 * @return
+	 */
+	public float getFixRate() {
+		long elapsed = SystemClock.elapsedRealtime() - mStartTime;
+		return elapsed > 0 ? mFixCount * 60000f / elapsed : 0;
+	}
+
+	/**
+	 * Returns how many times location updates have been requested, the first time included.
+	 *
+	 * @return
+	 */
+	public int getRequestCount() {
+		return mRequestCount.get();
+	}
+
+	/**
+	 * Returns minimal time between fixes currently requested, in milliseconds.
+	 *
+	 * @return
+	 */
+	public long getInterval() {
+		return mPolicy.getInterval();
+	}
+
+	/**
+	 * Returns average battery drain since {@link #start()}, in percent per hour. This is drain
+	 * of the whole device, not of the GPS alone.
+	 *
+	 * @return
+	 */
+	public float getBatteryDrain() {
+		long elapsed = SystemClock.elapsedRealtime() - mStartTime;
+		float level = getBatteryLevel();
+		if (elapsed <= 0 || level < 0 || mStartBattery < 0) {
+			return 0;
+		}
+		return (mStartBattery - level) * 3600000f / elapsed;
+	}
+
+	/**
+	 * Returns battery level in percent, -1 if unknown.
+	 */
+	private float getBatteryLevel() {
+		// battery status is a sticky broadcast, it can be read without a receiver
+		Intent battery = mContext.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+		if (battery == null) {
+			return -1;
+		}
+		int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+		int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+		if (level < 0 || scale <= 0) {
+			return -1;
+		}
+		return level * 100f / scale;
+	}
+
+	private final Runnable mPublish = new Runnable() {
+		@Override
+		public void run() {
+			mPublishPosted.set(false);
+			long cell = mLatestCell;
+			mWorld.setCell((int) cell, (int) (cell >> 32));
+		}
+	};
+
+	private final LocationListener mLocationListener = new LocationListener() {
+		@Override
+		public void onLocationChanged(Location location) {
+			mFixCount++;
+			TraceRecorder recorder = mTraceRecorder;
+			if (recorder != null) {
+				recorder.onFix(SystemClock.uptimeMillis(), location.getLatitude(), location.getLongitude(),
+						location.getAccuracy(), location.getTime());
+			}
+			boolean entered = mFilter.update(location.getLatitude(), location.getLongitude(),
+					location.getAccuracy(), location.getTime());
+			if (mPolicy.update(mFilter.getSpeed(), mFilter.getEdgeDistance())) {
+				requestUpdates();
+			}
+			if (!entered) {
+				return;
+			}
+			mLatestCell = ((long) mFilter.getCellY() << 32) | (mFilter.getCellX() & 0xffffffffL);
+			if (mPublishPosted.compareAndSet(false, true)) {
+				mGuiHandler.post(mPublish);
+			}
+		}
+
+		@Override
+		public void onStatusChanged(String provider, int status, Bundle extras) {
+
+		}
+
+		@Override
+		public void onProviderEnabled(String provider) {
+
+		}
+
+		@Override
+		public void onProviderDisabled(String provider) {
+
+		}
+	};
+}
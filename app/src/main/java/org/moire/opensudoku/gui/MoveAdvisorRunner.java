@@ -0,0 +1,116 @@
+package org.moire.opensudoku.gui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import android.os.Build;
+import android.os.Handler;
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.Clock;
+import org.moire.opensudoku.sim.MoveAdvisor;
+
+/**
+ * Runs {@link MoveAdvisor} on one background thread and publishes its advice on GUI thread.
+ * Requests made while a search is running are coalesced, only the latest board is searched
+ * next, and the running search is cancelled, as its board has been left - a tile placed or
+ * another chunk of the world entered. Advice for a board which has changed meanwhile is
+ * dropped.
+ * <p/>
+ * Where fork/join is available (API level 21), cells are searched on all cores.
+ * <p/>
+ * Please note that instance of this class has to be created on GUI thread!
+ * <p/>
+ * You should explicitly call {@link #destroy()} when this object is no longer needed.
+ */
+public class MoveAdvisorRunner {
+
+	public interface OnAdviceListener {
+		/**
+		 * Called on GUI thread with advice for the board last passed to {@link #request(CellCollection)}.
+		 */
+		void onAdvice(MoveAdvisor.Advice advice);
+	}
+
+	private final MoveAdvisor mAdvisor;
+	private final OnAdviceListener mListener;
+	private final Handler mGuiHandler;
+	private final ExecutorService mAdvisorService = Executors.newSingleThreadExecutor();
+
+	private final AtomicReference<MoveAdvisor.Position> mPending = new AtomicReference<MoveAdvisor.Position>();
+
+	// touched on GUI thread only
+	private boolean mRequested = false;
+	private long mRequestedHash;
+
+	public MoveAdvisorRunner(CellCollection cells, OnAdviceListener listener) {
+		int parallelism = Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+				? Runtime.getRuntime().availableProcessors() : 1;
+		mAdvisor = new MoveAdvisor(cells.getDimension(), Clock.SYSTEM, parallelism);
+		mListener = listener;
+		mGuiHandler = new Handler();
+	}
+
+	/**
+	 * Searches given board unless it has already been requested. Has to be called on GUI thread.
+	 */
+	public void request(CellCollection cells) {
+		long hash = cells.getHash();
+		if (mRequested && hash == mRequestedHash) {
+			return;
+		}
+		mRequested = true;
+		mRequestedHash = hash;
+
+		// before queueing, so that it cannot hit the search of this board
+		mAdvisor.cancel();
+
+		MoveAdvisor.Position position = MoveAdvisor.Position.of(cells);
+		if (position.isFull()) {
+			return;
+		}
+		if (mPending.getAndSet(position) == null) {
+			mAdvisorService.execute(mSearch);
+		}
+	}
+
+	/**
+	 * Forgets the last request, so that the next one is searched even for the same board.
+	 */
+	public void reset() {
+		mRequested = false;
+	}
+
+	public void destroy() {
+		mPending.set(null);
+		mAdvisor.cancel();
+		// after the running search, if any
+		mAdvisorService.execute(new Runnable() {
+			@Override
+			public void run() {
+				mAdvisor.shutdown();
+			}
+		});
+		mAdvisorService.shutdown();
+		mGuiHandler.removeCallbacksAndMessages(null);
+	}
+
+	private final Runnable mSearch = new Runnable() {
+		@Override
+		public void run() {
+			final MoveAdvisor.Position position = mPending.getAndSet(null);
+			if (position == null) {
+				return;
+			}
+			final MoveAdvisor.Advice advice = mAdvisor.advise(position, MoveAdvisor.DEFAULT_BUDGET_MS);
+			mGuiHandler.post(new Runnable() {
+				@Override
+				public void run() {
+					if (mRequested && position.getHash() == mRequestedHash) {
+						mListener.onAdvice(advice);
+					}
+				}
+			});
+		}
+	};
+}
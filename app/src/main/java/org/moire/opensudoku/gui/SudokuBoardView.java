@@ -20,8 +20,6 @@
 
 package org.moire.opensudoku.gui;
 
-import java.util.Collection;
-
 import org.moire.opensudoku.R;
 import org.moire.opensudoku.game.Cell;
 import org.moire.opensudoku.game.CellCollection;
@@ -33,6 +31,7 @@ import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
@@ -53,6 +52,9 @@ public class SudokuBoardView extends View {
 	 */
 	private static final int NO_COLOR = 0;
 
+	// Labels of noted numbers, drawn by offset so that notes don't allocate strings on each frame.
+	private static final char[] NOTE_DIGITS = "123456789".toCharArray();
+
 	private float mCellWidth;
 	private float mCellHeight;
 
@@ -86,6 +88,13 @@ public class SudokuBoardView extends View {
 
 	private Paint mCellValueInvalidPaint;
 
+	// Move hints, 0 (worst) to 1 (best) per cell, NaN for cells without hint.
+	private float[] mHeatMap;
+	private Paint mHeatMapPaint;
+
+	// Area of the canvas which needs redrawing, reused by onDraw.
+	private final Rect mClipBounds = new Rect();
+
 	public SudokuBoardView(Context context) {
 		this(context, null);
 	}
@@ -111,6 +120,7 @@ public class SudokuBoardView extends View {
 		mBackgroundColorReadOnly = new Paint();
 		mBackgroundColorTouched = new Paint();
 		mBackgroundColorSelected = new Paint();
+		mHeatMapPaint = new Paint();
 
 		mCellValuePaint.setAntiAlias(true);
 		mCellValueReadonlyPaint.setAntiAlias(true);
@@ -208,6 +218,17 @@ public class SudokuBoardView extends View {
 		mBackgroundColorSelected.setAlpha(100);
 	}
 
+	/**
+	 * Shades cells by given move hints, the better the cell, the stronger the shade.
+	 *
+	 * @param heatMap Value from 0 (worst) to 1 (best) for each cell index, NaN for cells
+	 *                without hint. Null hides the hints.
+	 */
+	public void setHeatMap(float[] heatMap) {
+		mHeatMap = heatMap;
+		postInvalidate();
+	}
+
 	public void setGame(SudokuGame game) {
 		mGame = game;
 		setCells(game.getCells());
@@ -215,6 +236,8 @@ public class SudokuBoardView extends View {
 
 	public void setCells(CellCollection cells) {
 		mCells = cells;
+		// cell size depends on the board dimension
+		requestLayout();
 
 		if (mCells != null) {
 			if (!mReadonly) {
@@ -358,8 +381,8 @@ public class SudokuBoardView extends View {
 			height = heightSize;
 		}
 
-		mCellWidth = (width - getPaddingLeft() - getPaddingRight()) / 9.0f;
-		mCellHeight = (height - getPaddingTop() - getPaddingBottom()) / 9.0f;
+		mCellWidth = (width - getPaddingLeft() - getPaddingRight()) / (float) getColumnCount();
+		mCellHeight = (height - getPaddingTop() - getPaddingBottom()) / (float) getRowCount();
 
 		setMeasuredDimension(width, height);
 
@@ -378,6 +401,14 @@ public class SudokuBoardView extends View {
 		computeSectorLineWidth(width, height);
 	}
 
+	private int getRowCount() {
+		return mCells != null ? mCells.getRowCount() : CellCollection.SUDOKU_SIZE;
+	}
+
+	private int getColumnCount() {
+		return mCells != null ? mCells.getColumnCount() : CellCollection.SUDOKU_SIZE;
+	}
+
 	private void computeSectorLineWidth(int widthInPx, int heightInPx) {
 		int sizeInPx = widthInPx < heightInPx ? widthInPx : heightInPx;
 		float dipScale = getContext().getResources().getDisplayMetrics().density;
@@ -406,12 +437,28 @@ public class SudokuBoardView extends View {
 		int paddingLeft = getPaddingLeft();
 		int paddingTop = getPaddingTop();
 
-		// draw secondary background (what is this?)
+		// only cells intersecting the area being redrawn are drawn, so large boards
+		// cost no more per frame than the part of them on screen
+		int rowCount = getRowCount();
+		int columnCount = getColumnCount();
+		canvas.getClipBounds(mClipBounds);
+		int firstRow = Math.max(0, (int) ((mClipBounds.top - paddingTop) / mCellHeight));
+		int lastRow = Math.min(rowCount - 1, (int) ((mClipBounds.bottom - paddingTop) / mCellHeight));
+		int firstCol = Math.max(0, (int) ((mClipBounds.left - paddingLeft) / mCellWidth));
+		int lastCol = Math.min(columnCount - 1, (int) ((mClipBounds.right - paddingLeft) / mCellWidth));
+
+		// draw secondary background (what is this?), every other 3x3 sector
 		if (mBackgroundColorSecondary.getColor() != NO_COLOR) {
-			canvas.drawRect(3 * mCellWidth, 0, 6 * mCellWidth, 3 * mCellWidth, mBackgroundColorSecondary);
-			canvas.drawRect(0, 3 * mCellWidth, 3 * mCellWidth, 6 * mCellWidth, mBackgroundColorSecondary);
-			canvas.drawRect(6 * mCellWidth, 3 * mCellWidth, 9 * mCellWidth, 6 * mCellWidth, mBackgroundColorSecondary);
-			canvas.drawRect(3 * mCellWidth, 6 * mCellWidth, 6 * mCellWidth, 9 * mCellWidth, mBackgroundColorSecondary);
+			for (int sr = firstRow / 3; sr <= lastRow / 3; sr++) {
+				for (int sc = firstCol / 3; sc <= lastCol / 3; sc++) {
+					if ((sr + sc) % 2 == 1) {
+						canvas.drawRect(3 * sc * mCellWidth + paddingLeft, 3 * sr * mCellHeight + paddingTop,
+								Math.min(3 * sc + 3, columnCount) * mCellWidth + paddingLeft,
+								Math.min(3 * sr + 3, rowCount) * mCellHeight + paddingTop,
+								mBackgroundColorSecondary);
+					}
+				}
+			}
 		}
 
 		// draw cells
@@ -423,8 +470,8 @@ public class SudokuBoardView extends View {
 			float numberAscent = mCellValuePaint.ascent();
 			float noteAscent = mCellNotePaint.ascent();
 			float noteWidth = mCellWidth / 3f;
-			for (int row = 0; row < 9; row++) {
-				for (int col = 0; col < 9; col++) {
+			for (int row = firstRow; row <= lastRow; row++) {
+				for (int col = firstCol; col <= lastCol; col++) {
 					Cell cell = mCells.getCell(row, col);
 
 					cellLeft = Math.round((col * mCellWidth) + paddingLeft);
@@ -442,8 +489,13 @@ public class SudokuBoardView extends View {
 
 					// draw cell Text
 					int value = cell.getValue();
+					if (value == 0 && mHeatMap != null && !Float.isNaN(mHeatMap[cell.getIndex()])) {
+						mHeatMapPaint.setColor(Color.GREEN);
+						mHeatMapPaint.setAlpha(20 + Math.round(140 * mHeatMap[cell.getIndex()]));
+						canvas.drawRect(cellLeft, cellTop, cellLeft + mCellWidth, cellTop + mCellHeight, mHeatMapPaint);
+					}
 					if (value != 0) {
-						Paint cellValuePaint = cell.mHighlight ? mCellValueReadonlyPaint : mCellValuePaint;
+						Paint cellValuePaint = cell.isHighlighted() ? mCellValueReadonlyPaint : mCellValuePaint;
 
 						if (mHighlightWrongVals && !cell.isValid()) {
 							cellValuePaint = mCellValueInvalidPaint;
@@ -454,14 +506,13 @@ public class SudokuBoardView extends View {
 								cellTop + mNumberTop - numberAscent,
 								cellValuePaint);
 					} else {
-						if (!cell.getNote().isEmpty()) {
-							Collection<Integer> numbers = cell.getNote().getNotedNumbers();
-							for (Integer number : numbers) {
-								int n = number - 1;
+						int notes = cell.getNote().getNotedMask();
+						for (int n = 0; notes != 0; n++, notes >>= 1) {
+							if ((notes & 1) != 0) {
 								int c = n % 3;
 								int r = n / 3;
 								//canvas.drawText(Integer.toString(number), cellLeft + c*noteWidth + 2, cellTop + noteAscent + r*noteWidth - 1, mNotePaint);
-								canvas.drawText(Integer.toString(number), cellLeft + c * noteWidth + 2, cellTop + mNoteTop - noteAscent + r * noteWidth - 1, mCellNotePaint);
+								canvas.drawText(NOTE_DIGITS, n, 1, cellLeft + c * noteWidth + 2, cellTop + mNoteTop - noteAscent + r * noteWidth - 1, mCellNotePaint);
 							}
 						}
 					}
@@ -513,13 +564,13 @@ public class SudokuBoardView extends View {
 		}
 
 		// draw vertical lines
-		for (int c = 0; c <= 9; c++) {
+		for (int c = firstCol; c <= lastCol + 1; c++) {
 			float x = (c * mCellWidth) + paddingLeft;
 			canvas.drawLine(x, paddingTop, x, height, mLinePaint);
 		}
 
 		// draw horizontal lines
-		for (int r = 0; r <= 9; r++) {
+		for (int r = firstRow; r <= lastRow + 1; r++) {
 			float y = r * mCellHeight + paddingTop;
 			canvas.drawLine(paddingLeft, y, width, y, mLinePaint);
 		}
@@ -691,8 +742,7 @@ public class SudokuBoardView extends View {
 	 * @return True, if cell was successfuly selected.
 	 */
 	private boolean moveCellSelectionTo(int row, int col) {
-		if (col >= 0 && col < CellCollection.SUDOKU_SIZE
-				&& row >= 0 && row < CellCollection.SUDOKU_SIZE) {
+		if (mCells.getDimension().contains(row, col)) {
 			mSelectedCell = mCells.getCell(row, col);
 			onCellSelected(mSelectedCell);
 
@@ -718,8 +768,7 @@ public class SudokuBoardView extends View {
 		int row = (int) (ly / mCellHeight);
 		int col = (int) (lx / mCellWidth);
 
-		if (col >= 0 && col < CellCollection.SUDOKU_SIZE
-				&& row >= 0 && row < CellCollection.SUDOKU_SIZE) {
+		if (mCells.getDimension().contains(row, col)) {
 			return mCells.getCell(row, col);
 		} else {
 			return null;
@@ -38,6 +38,7 @@ import org.moire.opensudoku.db.SudokuDatabase;
 import org.moire.opensudoku.game.SudokuGame;
 import org.moire.opensudoku.gui.inputmethod.IMControlPanel;
 import org.moire.opensudoku.gui.inputmethod.InputMethod;
+import org.moire.opensudoku.utils.AndroidStateBundle;
 import org.moire.opensudoku.utils.AndroidUtils;
 
 /**
@@ -131,7 +132,7 @@ public class SudokuEditActivity extends Activity {
 
 		if (savedInstanceState != null) {
 			mGame = new SudokuGame();
-			mGame.restoreState(savedInstanceState);
+			mGame.restoreState(new AndroidStateBundle(savedInstanceState));
 		} else {
 			if (mSudokuID != 0) {
 				// existing sudoku, read it from database
@@ -194,7 +195,7 @@ public class SudokuEditActivity extends Activity {
 	protected void onSaveInstanceState(Bundle outState) {
 		super.onSaveInstanceState(outState);
 
-		mGame.saveState(outState);
+		mGame.saveState(new AndroidStateBundle(outState));
 	}
 
 	@Override
@@ -20,6 +20,12 @@
 
 package org.moire.opensudoku.gui;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.app.Dialog;
@@ -27,11 +33,11 @@ import android.content.ComponentName;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.location.LocationListener;
-import android.location.LocationManager;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
+import android.util.Log;
 import android.view.Display;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -40,15 +46,21 @@ import android.view.ViewGroup;
 import android.view.Window;
 import android.view.WindowManager;
 import android.widget.TextView;
+import org.moire.opensudoku.BuildConfig;
 import org.moire.opensudoku.R;
 import org.moire.opensudoku.db.SudokuDatabase;
+import org.moire.opensudoku.game.CellCollection;
 import org.moire.opensudoku.game.SudokuGame;
+import org.moire.opensudoku.game.World;
 import org.moire.opensudoku.game.SudokuGame.OnPuzzleSolvedListener;
+import org.moire.opensudoku.game.TraceRecorder;
 import org.moire.opensudoku.gui.inputmethod.IMControlPanel;
 import org.moire.opensudoku.gui.inputmethod.IMControlPanelStatePersister;
 import org.moire.opensudoku.gui.inputmethod.IMNumpad;
 import org.moire.opensudoku.gui.inputmethod.IMPopup;
 import org.moire.opensudoku.gui.inputmethod.IMSingleNumber;
+import org.moire.opensudoku.sim.MoveAdvisor;
+import org.moire.opensudoku.utils.AndroidStateBundle;
 import org.moire.opensudoku.utils.AndroidUtils;
 
 /*
@@ -74,11 +86,18 @@ public class SudokuPlayActivity extends Activity {
 
 	private static final int REQUEST_SETTINGS = 1;
 
+	private static final String TAG = "SudokuPlayActivity";
+
+	// traces kept in app's files, the one of this session included
+	private static final int MAX_TRACES = 10;
+
 	private long mSudokuGameID;
 	private SudokuGame mSudokuGame;
 
 
 	private SudokuDatabase mDatabase;
+	private WorldChunkLoader mChunkLoader;
+	private World mWorld;
 
 	private Handler mGuiHandler;
 
@@ -100,7 +119,11 @@ public class SudokuPlayActivity extends Activity {
 
 	private HintsQueue mHintsQueue;
 
-	LocationManager locationManager;
+	private LocationPipeline mLocationPipeline;
+	private TraceRecorder mTraceRecorder;
+
+	private boolean mShowMoveHints = false;
+	private MoveAdvisorRunner mMoveAdvisorRunner;
 
 	@Override
 	public void onCreate(Bundle savedInstanceState) {
@@ -145,7 +168,7 @@ public class SudokuPlayActivity extends Activity {
 			mSudokuGame = new SudokuGame();
 
 			// activity has been running before, restore its state
-			mSudokuGame.restoreState(savedInstanceState);
+			mSudokuGame.restoreState(new AndroidStateBundle(savedInstanceState));
 			mGameTimer.restoreState(savedInstanceState);
 		}
 
@@ -159,9 +182,18 @@ public class SudokuPlayActivity extends Activity {
 			mSudokuBoard.setReadOnly(true);
 		}
 
+		mChunkLoader = new WorldChunkLoader(getApplicationContext(), mSudokuGame.getCells().getDimension());
+		mWorld = new World(mSudokuGame.getCells(), mChunkLoader);
+		mWorld.setOnChunkChangeListener(onChunkChangeListener);
+
+		// undo brings back score and upcoming tiles as well, not only the tapped cell
+		mSudokuGame.setSnapshotUndo(true);
 		mSudokuBoard.setGame(mSudokuGame);
 		mSudokuGame.setOnPuzzleSolvedListener(onSolvedListener);
 
+		mMoveAdvisorRunner = new MoveAdvisorRunner(mSudokuGame.getCells(), onAdviceListener);
+		mSudokuGame.getCells().addOnChangeListener(onCellsChangeListener);
+
 		mHintsQueue.showOneTimeHint("welcome", R.string.welcome, R.string.first_run_hint);
 
 		mIMControlPanel = (IMControlPanel) findViewById(R.id.input_methods);
@@ -173,10 +205,11 @@ public class SudokuPlayActivity extends Activity {
 		mIMSingleNumber = mIMControlPanel.getInputMethod(IMControlPanel.INPUT_METHOD_SINGLE_NUMBER);
 		mIMNumpad = mIMControlPanel.getInputMethod(IMControlPanel.INPUT_METHOD_NUMPAD);
 
-		locationManager=(LocationManager) getSystemService(LOCATION_SERVICE);
-		locationManager.requestLocationUpdates( LocationManager.GPS_PROVIDER,
-				200,
-				1, locationListenerGPS);
+		mLocationPipeline = new LocationPipeline(getApplicationContext(), mWorld);
+		if (BuildConfig.DEBUG) {
+			startTraceRecording();
+		}
+		mLocationPipeline.start();
 		//isLocationEnabled();
 
 	}
@@ -196,6 +229,14 @@ public class SudokuPlayActivity extends Activity {
 		mSudokuBoard.setHighlightWrongVals(gameSettings.getBoolean("highlight_wrong_values", true));
 		mSudokuBoard.setHighlightTouchedCell(gameSettings.getBoolean("highlight_touched_cell", true));
 
+		mShowMoveHints = gameSettings.getBoolean("show_move_hints", false);
+		if (mShowMoveHints) {
+			mMoveAdvisorRunner.reset();
+			mMoveAdvisorRunner.request(mSudokuGame.getCells());
+		} else {
+			mSudokuBoard.setHeatMap(null);
+		}
+
 		mShowTime = gameSettings.getBoolean("show_time", true);
 		if (mSudokuGame.getState() == SudokuGame.GAME_STATE_PLAYING) {
 			mSudokuGame.resume();
@@ -252,6 +293,10 @@ public class SudokuPlayActivity extends Activity {
 
 		// we will save game to the database as we might not be able to get back
 		mDatabase.updateSudoku(mSudokuGame);
+		mWorld.flush();
+		if (mTraceRecorder != null) {
+			mTraceRecorder.flush();
+		}
 
 		mGameTimer.stop();
 		mIMControlPanel.pause();
@@ -262,9 +307,53 @@ public class SudokuPlayActivity extends Activity {
 	protected void onDestroy() {
 		super.onDestroy();
 
+		mLocationPipeline.stop();
+		if (mTraceRecorder != null) {
+			mTraceRecorder.close();
+		}
+		mChunkLoader.destroy();
+		mMoveAdvisorRunner.destroy();
 		mDatabase.close();
 	}
 
+	/**
+	 * Records fixes and taps of this session into app's files, see {@link TraceRecorder}. Only
+	 * the last {@link #MAX_TRACES} sessions are kept.
+	 */
+	private void startTraceRecording() {
+		File dir = new File(getFilesDir(), "traces");
+		dir.mkdirs();
+		deleteOldTraces(dir, MAX_TRACES - 1);
+		File file = new File(dir, "trace-" + System.currentTimeMillis() + ".ostrace");
+		try {
+			mTraceRecorder = new TraceRecorder(new BufferedOutputStream(new FileOutputStream(file)),
+					mSudokuGame.getCells(), SystemClock.uptimeMillis());
+		} catch (IOException e) {
+			// only a diagnostic aid, play on without it
+			Log.e(TAG, "Error occured while starting trace recording.", e);
+			return;
+		}
+		mSudokuGame.setTraceRecorder(mTraceRecorder);
+		mLocationPipeline.setTraceRecorder(mTraceRecorder);
+	}
+
+	/**
+	 * Deletes all but the given number of newest traces in given directory.
+	 */
+	private static void deleteOldTraces(File dir, int keep) {
+		File[] traces = dir.listFiles();
+		if (traces == null || traces.length <= keep) {
+			return;
+		}
+		// names hold the start time with the same number of digits, so they sort oldest first
+		Arrays.sort(traces);
+		for (int i = 0; i < traces.length - keep; i++) {
+			if (!traces[i].delete()) {
+				Log.w(TAG, "Could not delete old trace " + traces[i] + ".");
+			}
+		}
+	}
+
 	@Override
 	protected void onSaveInstanceState(Bundle outState) {
 		super.onSaveInstanceState(outState);
@@ -275,7 +364,7 @@ public class SudokuPlayActivity extends Activity {
 			mSudokuGame.pause();
 		}
 
-		mSudokuGame.saveState(outState);
+		mSudokuGame.saveState(new AndroidStateBundle(outState));
 		mGameTimer.saveState(outState);
 	}
 
@@ -465,6 +554,37 @@ public class SudokuPlayActivity extends Activity {
 		return null;
 	}
 
+	private CellCollection.OnChangeListener onCellsChangeListener = new CellCollection.OnChangeListener() {
+
+		@Override
+		public void onChange() {
+			// runner ignores changes which leave the board as it is, e.g. moving selection
+			if (mShowMoveHints) {
+				mMoveAdvisorRunner.request(mSudokuGame.getCells());
+			}
+		}
+	};
+
+	private MoveAdvisorRunner.OnAdviceListener onAdviceListener = new MoveAdvisorRunner.OnAdviceListener() {
+
+		@Override
+		public void onAdvice(MoveAdvisor.Advice advice) {
+			if (mShowMoveHints) {
+				mSudokuBoard.setHeatMap(advice.getHeatMap());
+			}
+		}
+	};
+
+	private World.OnChunkChangeListener onChunkChangeListener = new World.OnChunkChangeListener() {
+
+		@Override
+		public void onChunkChanged(long key) {
+			// moves made in the previous chunk must not be undone over this one
+			mSudokuGame.clearUndo();
+		}
+
+	};
+
 	/**
 	 * Occurs when puzzle is solved.
 	 */
@@ -508,30 +628,4 @@ public class SudokuPlayActivity extends Activity {
 		}
 
 	}
-
-	private final LocationListener locationListenerGPS=new LocationListener() {
-		@Override
-		public void onLocationChanged(android.location.Location location) {
-			double latitude=location.getLatitude();
-			double longitude=location.getLongitude();
-			String msg="New Latitude: "+latitude + "New Longitude: "+longitude;
-			// Toast.makeText(mContext,msg,Toast.LENGTH_LONG).show();
-			mSudokuGame.getCells().setLocation(latitude, longitude);
-		}
-
-		@Override
-		public void onStatusChanged(String provider, int status, Bundle extras) {
-
-		}
-
-		@Override
-		public void onProviderEnabled(String provider) {
-
-		}
-
-		@Override
-		public void onProviderDisabled(String provider) {
-
-		}
-	};
 }
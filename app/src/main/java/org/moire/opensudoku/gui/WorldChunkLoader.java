@@ -0,0 +1,103 @@
+package org.moire.opensudoku.gui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import android.content.Context;
+import android.os.Handler;
+import android.util.Log;
+import org.moire.opensudoku.db.SudokuDatabase;
+import org.moire.opensudoku.game.BoardDimension;
+import org.moire.opensudoku.game.ChunkLoader;
+
+/**
+ * Loads and saves world chunks on one single background thread, so that they are processed
+ * in the order they were requested. Loaded chunks are published on GUI thread.
+ * <p/>
+ * Please note that instance of this class has to be created on GUI thread!
+ * <p/>
+ * You should explicitly call {@link #destroy()} when this object is no longer needed.
+ */
+public class WorldChunkLoader implements ChunkLoader {
+
+	private static final String TAG = "WorldChunkLoader";
+
+	private SudokuDatabase mDatabase;
+	private BoardDimension mDimension;
+	private Handler mGuiHandler;
+	private ExecutorService mLoaderService = Executors.newSingleThreadExecutor();
+
+	/**
+	 * @param dimension Size of the chunks, placed tiles are indexed by their world coordinates.
+	 */
+	public WorldChunkLoader(Context context, BoardDimension dimension) {
+		mDatabase = new SudokuDatabase(context);
+		mDimension = dimension;
+		mGuiHandler = new Handler();
+	}
+
+	@Override
+	public void load(long key, Callback callback) {
+		final long keyFinal = key;
+		final Callback callbackFinal = callback;
+		mLoaderService.execute(new Runnable() {
+			@Override
+			public void run() {
+				byte[] loaded;
+				boolean empty;
+				try {
+					loaded = mDatabase.getChunk(keyFinal);
+					empty = loaded == null && !mDatabase.hasChunks();
+				} catch (Exception e) {
+					// the stored chunk must not be taken for an empty one and saved over
+					Log.e(TAG, "Error occured while loading chunk " + keyFinal + ".", e);
+					mGuiHandler.post(new Runnable() {
+						@Override
+						public void run() {
+							callbackFinal.onChunkLoadFailed(keyFinal);
+						}
+					});
+					return;
+				}
+
+				final byte[] values = loaded;
+				final boolean worldEmpty = empty;
+				mGuiHandler.post(new Runnable() {
+					@Override
+					public void run() {
+						callbackFinal.onChunkLoaded(keyFinal, values, worldEmpty);
+					}
+				});
+			}
+		});
+	}
+
+	@Override
+	public void save(long key, byte[] values) {
+		final long keyFinal = key;
+		final byte[] valuesFinal = values;
+		mLoaderService.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					mDatabase.saveChunk(keyFinal, mDimension, valuesFinal);
+				} catch (Exception e) {
+					Log.e(TAG, "Error occured while saving chunk " + keyFinal + ".", e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Lets already requested saves finish and closes the database afterwards.
+	 */
+	public void destroy() {
+		mLoaderService.execute(new Runnable() {
+			@Override
+			public void run() {
+				mDatabase.close();
+			}
+		});
+		mLoaderService.shutdown();
+	}
+}
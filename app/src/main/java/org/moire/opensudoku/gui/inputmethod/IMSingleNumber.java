@@ -20,8 +20,6 @@
 
 package org.moire.opensudoku.gui.inputmethod;
 
-import java.util.Map;
-
 import android.content.Context;
 import android.os.Handler;
 import android.view.LayoutInflater;
@@ -60,8 +58,13 @@ public class IMSingleNumber extends InputMethod {
 	private TextView mTxtNextEmoji;
 	private TextView mTxtUnlocked;
 
+	// reused on every update of the upcoming tiles
+	private final int[] mNextTiles = new int[CellCollection.MAX_LOOKAHEAD];
+	private final StringBuilder mNextText = new StringBuilder();
+
 	private Handler mGuiHandler;
 	//private Map<Integer, Button> mNumberButtons;
+	private int[] mValuesUseCount;
 
 	public IMSingleNumber() {
 		super();
@@ -157,7 +160,14 @@ public class IMSingleNumber extends InputMethod {
 
 	private void update() {
 		mTxtScore.setText("Score: " + String.valueOf( mGame.getCells().getScore()  ));
-		mTxtNextEmoji.setText("Next tile: " + mGame.getCells().getNextEmojisString());
+		CellCollection cells = mGame.getCells();
+		int nextCount = cells.getNext(mNextTiles);
+		mNextText.setLength(0);
+		mNextText.append("Next tile: ");
+		for (int i = 0; i < nextCount; i++) {
+			mNextText.append(cells.IdxToEmoji(mNextTiles[i]));
+		}
+		mTxtNextEmoji.setText(mNextText);
 		mTxtUnlocked.setText("Unlocked: " + mGame.getCells().getUnlockedEmojisString());
 
 		switch (mEditMode) {
@@ -175,14 +185,13 @@ public class IMSingleNumber extends InputMethod {
 			@Override
 			public void run() {
 
-				Map<Integer, Integer> valuesUseCount = null;
 				if (mHighlightCompletedValues || mShowNumberTotals)
-					valuesUseCount = mGame.getCells().getValuesUseCount();
+					mValuesUseCount = mGame.getCells().getValuesUseCount(mValuesUseCount);
 
 				if (mHighlightCompletedValues) {
 					//int completedTextColor = mContext.getResources().getColor(R.color.im_number_button_completed_text);
-					for (Map.Entry<Integer, Integer> entry : valuesUseCount.entrySet()) {
-						boolean highlightValue = entry.getValue() >= CellCollection.SUDOKU_SIZE;
+					for (int value = 1; value <= CellCollection.SUDOKU_SIZE; value++) {
+						boolean highlightValue = mValuesUseCount[value] >= CellCollection.SUDOKU_SIZE;
 						if (highlightValue) {
 							//Button b = mNumberButtons.get(entry.getKey());
 							/*if (b.getTag().equals(mSelectedNumber)) {
@@ -0,0 +1,96 @@
+package org.moire.opensudoku.utils;
+
+import android.os.Bundle;
+import org.moire.opensudoku.game.StateBundle;
+
+/**
+ * {@link StateBundle} backed by Android's {@link Bundle}, so that state of the game can go into
+ * saved instance state of activities.
+ */
+public class AndroidStateBundle implements StateBundle {
+	private final Bundle mBundle;
+
+	public AndroidStateBundle(Bundle bundle) {
+		mBundle = bundle;
+	}
+
+	public Bundle getBundle() {
+		return mBundle;
+	}
+
+	@Override
+	public void putBoolean(String key, boolean value) {
+		mBundle.putBoolean(key, value);
+	}
+
+	@Override
+	public boolean getBoolean(String key) {
+		return mBundle.getBoolean(key);
+	}
+
+	@Override
+	public void putInt(String key, int value) {
+		mBundle.putInt(key, value);
+	}
+
+	@Override
+	public int getInt(String key) {
+		return mBundle.getInt(key);
+	}
+
+	@Override
+	public void putLong(String key, long value) {
+		mBundle.putLong(key, value);
+	}
+
+	@Override
+	public long getLong(String key) {
+		return mBundle.getLong(key);
+	}
+
+	@Override
+	public void putString(String key, String value) {
+		mBundle.putString(key, value);
+	}
+
+	@Override
+	public String getString(String key) {
+		return mBundle.getString(key);
+	}
+
+	@Override
+	public void putIntArray(String key, int[] value) {
+		mBundle.putIntArray(key, value);
+	}
+
+	@Override
+	public int[] getIntArray(String key) {
+		return mBundle.getIntArray(key);
+	}
+
+	@Override
+	public void putStringArray(String key, String[] value) {
+		mBundle.putStringArray(key, value);
+	}
+
+	@Override
+	public String[] getStringArray(String key) {
+		return mBundle.getStringArray(key);
+	}
+
+	@Override
+	public void putBundle(String key, StateBundle value) {
+		mBundle.putBundle(key, ((AndroidStateBundle) value).mBundle);
+	}
+
+	@Override
+	public StateBundle getBundle(String key) {
+		Bundle bundle = mBundle.getBundle(key);
+		return bundle != null ? new AndroidStateBundle(bundle) : null;
+	}
+
+	@Override
+	public StateBundle newBundle() {
+		return new AndroidStateBundle(new Bundle());
+	}
+}
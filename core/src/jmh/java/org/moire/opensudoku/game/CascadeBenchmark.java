@@ -0,0 +1,57 @@
+package org.moire.opensudoku.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Placing a tile and resolving the matches it causes. Each operation first restores the board,
+ * {@link #restore(CascadeBenchmark)} measures that part alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CascadeBenchmark {
+
+	@Param({"EMPTY", "HALF_FULL", "CASCADE"})
+	public Fixtures.Kind kind;
+
+	private CellCollection mCells;
+	private byte[] mStart;
+	private Cell mPlaced;
+
+	@Setup
+	public void setUp() {
+		mCells = Fixtures.board(kind);
+		mStart = mCells.getValues(new byte[mCells.getCellCount()]);
+		mPlaced = mCells.getCell(Fixtures.PLACE_ROW, Fixtures.PLACE_COLUMN);
+	}
+
+	@Benchmark
+	public CellCollection restore() {
+		mCells.setValues(mStart);
+		mPlaced.setValue(1);
+		return mCells;
+	}
+
+	@Benchmark
+	public CellCollection consumeMatchingLines() {
+		mCells.setValues(mStart);
+		mPlaced.setValue(1);
+		mCells.consumeMatchingLines(mPlaced);
+		return mCells;
+	}
+}
@@ -0,0 +1,71 @@
+package org.moire.opensudoku.game;
+
+import java.util.Random;
+
+/**
+ * Boards the benchmarks run on. All of them are built from {@link #SEED}, tile generators
+ * included, so every run measures exactly the same work.
+ */
+public final class Fixtures {
+
+	public static final long SEED = 20170622L;
+
+	/**
+	 * Cell the benchmarks place tiles on.
+	 */
+	public static final int PLACE_ROW = 4;
+	public static final int PLACE_COLUMN = 4;
+
+	public enum Kind {
+		/**
+		 * Nothing on the board, placing a tile matches nothing.
+		 */
+		EMPTY,
+		/**
+		 * Every other cell holds a random tile of the first two sets.
+		 */
+		HALF_FULL,
+		/**
+		 * Placing a 1 on the place cell matches three times in a row: 1s into a 2, 2s into a 3,
+		 * 3s vanish.
+		 */
+		CASCADE
+	}
+
+	private Fixtures() {
+	}
+
+	public static CellCollection board(Kind kind) {
+		return board(kind, BoardDimension.DEFAULT);
+	}
+
+	public static CellCollection board(Kind kind, BoardDimension dimension) {
+		CellCollection cells = CellCollection.createEmpty(dimension);
+		cells.setSeed(SEED);
+		cells.resetNext();
+
+		Random rand = new Random(SEED);
+		switch (kind) {
+			case EMPTY:
+				break;
+			case HALF_FULL:
+				for (int r = 0; r < dimension.getRows(); r++) {
+					for (int c = 0; c < dimension.getColumns(); c++) {
+						if (rand.nextBoolean() && (r != PLACE_ROW || c != PLACE_COLUMN)) {
+							cells.getCell(r, c).setValue(1 + rand.nextInt(6));
+						}
+					}
+				}
+				break;
+			case CASCADE:
+				cells.getCell(PLACE_ROW, PLACE_COLUMN - 2).setValue(1);
+				cells.getCell(PLACE_ROW, PLACE_COLUMN - 1).setValue(1);
+				cells.getCell(PLACE_ROW, PLACE_COLUMN + 1).setValue(2);
+				cells.getCell(PLACE_ROW, PLACE_COLUMN + 2).setValue(2);
+				cells.getCell(PLACE_ROW - 2, PLACE_COLUMN).setValue(3);
+				cells.getCell(PLACE_ROW - 1, PLACE_COLUMN).setValue(3);
+				break;
+		}
+		return cells;
+	}
+}
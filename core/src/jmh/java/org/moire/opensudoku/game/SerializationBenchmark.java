@@ -0,0 +1,69 @@
+package org.moire.opensudoku.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Storage format of boards: writing, reading and checking it. 9x9 boards are stored in
+ * version 1 of the format, other sizes in version 2.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	@Param({"9", "16"})
+	public int size;
+
+	private CellCollection mCells;
+	private String mData;
+	private int mDataVersion;
+	private String mPlainData;
+
+	@Setup
+	public void setUp() {
+		mCells = Fixtures.board(Fixtures.Kind.HALF_FULL, new BoardDimension(size, size));
+		mData = mCells.serialize();
+		mDataVersion = size == CellCollection.SUDOKU_SIZE ? CellCollection.DATA_VERSION_1 : CellCollection.DATA_VERSION_2;
+
+		StringBuilder plain = new StringBuilder();
+		for (int i = 0; i < CellCollection.CELL_COUNT; i++) {
+			plain.append(i % 10);
+		}
+		mPlainData = plain.toString();
+	}
+
+	@Benchmark
+	public String serialize() {
+		return mCells.serialize();
+	}
+
+	@Benchmark
+	public CellCollection deserialize() {
+		return CellCollection.deserialize(mData);
+	}
+
+	@Benchmark
+	public boolean isValid() {
+		return CellCollection.isValid(mData, mDataVersion);
+	}
+
+	@Benchmark
+	public boolean isValidPlain() {
+		return CellCollection.isValid(mPlainData, CellCollection.DATA_VERSION_PLAIN);
+	}
+}
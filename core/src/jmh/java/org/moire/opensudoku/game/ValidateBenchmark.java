@@ -0,0 +1,55 @@
+package org.moire.opensudoku.game;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sudoku validation, after a single move and from scratch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateBenchmark {
+
+	@Param({"9", "64"})
+	public int size;
+
+	private CellCollection mCells;
+	private Cell mPlaced;
+	private int mValue = 0;
+
+	@Setup
+	public void setUp() {
+		mCells = Fixtures.board(Fixtures.Kind.HALF_FULL, new BoardDimension(size, size));
+		mCells.validate();
+		mPlaced = mCells.getCell(Fixtures.PLACE_ROW, Fixtures.PLACE_COLUMN);
+	}
+
+	@Benchmark
+	public boolean validateAfterMove() {
+		mValue = mValue == 0 ? 1 : 0;
+		mPlaced.setValue(mValue);
+		return mCells.validate();
+	}
+
+	@Benchmark
+	public boolean validateAll() {
+		// marks every group for checking
+		mCells.markAllCellsAsValid();
+		return mCells.validate();
+	}
+}
@@ -0,0 +1,62 @@
+package org.moire.opensudoku.game.command;
+
+import java.util.concurrent.TimeUnit;
+
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Commands with work proportional to the board or to the undo history.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmark {
+
+	// moves made after the checkpoint, all taken back by each undo
+	private static final int MOVES = 20;
+
+	private CellCollection mCells;
+	private FillInNotesCommand mFillInNotes;
+	private CommandStack mStack;
+
+	@Setup
+	public void setUp() {
+		mCells = Fixtures.board(Fixtures.Kind.HALF_FULL);
+
+		mFillInNotes = new FillInNotesCommand();
+		mFillInNotes.setCells(mCells);
+
+		mStack = new CommandStack(mCells);
+		mStack.execute(new SetCellValueCommand(mCells.getCell(0, 0)));
+		mStack.setCheckpoint();
+	}
+
+	@Benchmark
+	public CellCollection fillInNotes() {
+		mFillInNotes.execute();
+		return mCells;
+	}
+
+	@Benchmark
+	public CellCollection undoToCheckpoint() {
+		for (int i = 0; i < MOVES; i++) {
+			mStack.execute(new SetCellValueCommand(mCells.getCell(Fixtures.PLACE_ROW, i % mCells.getColumnCount())));
+		}
+		mStack.undoToCheckpoint();
+		return mCells;
+	}
+}
@@ -0,0 +1,83 @@
+package org.moire.opensudoku.sim;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.Clock;
+import org.moire.opensudoku.game.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Move advisor searching {@link #DEPTH} tiles ahead from scratch, on given number of threads.
+ * Run {@link #main(String[])} (the advisorSpeedup task) to get the speedup against a single
+ * thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdvisorBenchmark {
+
+	static final int DEPTH = 3;
+
+	@Param({"1", "2", "4", "8"})
+	public int threads;
+
+	private MoveAdvisor mAdvisor;
+	private MoveAdvisor.Position mPosition;
+
+	@Setup
+	public void setUp() {
+		CellCollection cells = Fixtures.board(Fixtures.Kind.HALF_FULL);
+		mAdvisor = new MoveAdvisor(cells.getDimension(), Clock.SYSTEM, threads);
+		mPosition = MoveAdvisor.Position.of(cells);
+	}
+
+	@TearDown
+	public void tearDown() {
+		mAdvisor.shutdown();
+	}
+
+	@Benchmark
+	public MoveAdvisor.Advice advise() {
+		mAdvisor.clearTable();
+		return mAdvisor.advise(mPosition, Long.MAX_VALUE / 2, DEPTH);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Collection<RunResult> results = new Runner(new OptionsBuilder()
+				.include(AdvisorBenchmark.class.getSimpleName())
+				.build()).run();
+
+		double single = Double.NaN;
+		for (RunResult result : results) {
+			if ("1".equals(result.getParams().getParam("threads"))) {
+				single = result.getPrimaryResult().getScore();
+			}
+		}
+		for (RunResult result : results) {
+			double score = result.getPrimaryResult().getScore();
+			System.out.println(String.format(Locale.US, "%s threads: %.2f ms, speedup %.2f",
+					result.getParams().getParam("threads"), score, single / score));
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Draws indices with given weights in constant time (Vose's alias method). Each column of a
+ * table is picked uniformly, then either its own index or its alias is taken. Building the
+ * table takes time linear in the number of weights; it allocates only when the table grows.
+ * <p/>
+ * Each draw takes exactly one number from the generator, so generators stay jumpable. With
+ * equal weights the draws are the same as {@link SplitMix64#nextInt(int)} gives.
+ */
+final class AliasSampler {
+	private static final long ONE = 1L << 32;
+
+	private int mSize = 0;
+	// chance of a column to keep its own index, scaled to 2^32
+	private long[] mThresholds = new long[0];
+	private int[] mAliases = new int[0];
+	private double[] mProbabilities = new double[0];
+
+	// scratch space for building
+	private double[] mScaled = new double[0];
+	private int[] mSmall = new int[0];
+	private int[] mLarge = new int[0];
+
+	/**
+	 * Builds table for the chains unlocked.
+	 *
+	 * @param weights
+	 * @param size    Number of indices, positive.
+	 */
+	void build(SpawnWeights weights, int size) {
+		if (mThresholds.length < size) {
+			mThresholds = new long[size];
+			mAliases = new int[size];
+			mProbabilities = new double[size];
+			mScaled = new double[size];
+			mSmall = new int[size];
+			mLarge = new int[size];
+		}
+		mSize = size;
+
+		double total = 0;
+		for (int i = 0; i < size; i++) {
+			double weight = weights.weight(i, size);
+			if (!(weight >= 0) || Double.isInfinite(weight)) {
+				throw new IllegalArgumentException("Weight of chain " + i + " is " + weight + ".");
+			}
+			mProbabilities[i] = weight;
+			total += weight;
+		}
+		if (!(total > 0)) {
+			throw new IllegalArgumentException("Weights of all chains are 0.");
+		}
+
+		int small = 0;
+		int large = 0;
+		for (int i = 0; i < size; i++) {
+			mProbabilities[i] /= total;
+			mScaled[i] = mProbabilities[i] * size;
+			if (mScaled[i] < 1) {
+				mSmall[small++] = i;
+			} else {
+				mLarge[large++] = i;
+			}
+		}
+		// each small column is topped up by a large one
+		while (small > 0 && large > 0) {
+			int s = mSmall[--small];
+			int l = mLarge[--large];
+			mThresholds[s] = (long) (mScaled[s] * ONE);
+			mAliases[s] = l;
+			mScaled[l] -= 1 - mScaled[s];
+			if (mScaled[l] < 1) {
+				mSmall[small++] = l;
+			} else {
+				mLarge[large++] = l;
+			}
+		}
+		// what is left is full up to rounding errors
+		while (large > 0) {
+			int l = mLarge[--large];
+			mThresholds[l] = ONE;
+			mAliases[l] = l;
+		}
+		while (small > 0) {
+			int s = mSmall[--small];
+			mThresholds[s] = ONE;
+			mAliases[s] = s;
+		}
+	}
+
+	/**
+	 * Returns index from 0 to size - 1, drawn with the chance given by its weight.
+	 */
+	int sample(SplitMix64 rand) {
+		long bits = rand.nextLong();
+		int column = (int) (((bits >>> 32) * mSize) >>> 32);
+		return (bits & (ONE - 1)) < mThresholds[column] ? column : mAliases[column];
+	}
+
+	/**
+	 * Returns chance of given index to be drawn.
+	 */
+	double probability(int index) {
+		return mProbabilities[index];
+	}
+}
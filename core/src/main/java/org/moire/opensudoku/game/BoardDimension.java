@@ -0,0 +1,92 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Size of a {@link CellCollection} board, rows x columns. Cells are addressed by flat index
+ * <code>rowIndex * columns + columnIndex</code>; this class does the conversions.
+ * <p/>
+ * Instances are immutable.
+ */
+public final class BoardDimension {
+
+	/**
+	 * Classic 9x9 board.
+	 */
+	public static final BoardDimension DEFAULT = new BoardDimension(CellCollection.SUDOKU_SIZE, CellCollection.SUDOKU_SIZE);
+
+	private final int mRows;
+	private final int mColumns;
+
+	/**
+	 * @param rows    Number of rows, at least 1.
+	 * @param columns Number of columns, at least 1.
+	 */
+	public BoardDimension(int rows, int columns) {
+		if (rows < 1 || columns < 1) {
+			throw new IllegalArgumentException("Board must have at least one cell, got " + rows + "x" + columns + ".");
+		}
+		if ((long) rows * columns > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Board " + rows + "x" + columns + " is too large.");
+		}
+		mRows = rows;
+		mColumns = columns;
+	}
+
+	public int getRows() {
+		return mRows;
+	}
+
+	public int getColumns() {
+		return mColumns;
+	}
+
+	public int getCellCount() {
+		return mRows * mColumns;
+	}
+
+	/**
+	 * Returns flat index of cell at given position.
+	 */
+	public int index(int rowIndex, int colIndex) {
+		return rowIndex * mColumns + colIndex;
+	}
+
+	/**
+	 * Returns row index of cell with given flat index.
+	 */
+	public int row(int index) {
+		return index / mColumns;
+	}
+
+	/**
+	 * Returns column index of cell with given flat index.
+	 */
+	public int column(int index) {
+		return index % mColumns;
+	}
+
+	/**
+	 * Returns true, if given position lies on the board.
+	 */
+	public boolean contains(int rowIndex, int colIndex) {
+		return rowIndex >= 0 && rowIndex < mRows && colIndex >= 0 && colIndex < mColumns;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof BoardDimension)) {
+			return false;
+		}
+		BoardDimension other = (BoardDimension) o;
+		return mRows == other.mRows && mColumns == other.mColumns;
+	}
+
+	@Override
+	public int hashCode() {
+		return mRows * 31 + mColumns;
+	}
+
+	@Override
+	public String toString() {
+		return mRows + "x" + mColumns;
+	}
+}
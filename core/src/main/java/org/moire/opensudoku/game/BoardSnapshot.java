@@ -0,0 +1,109 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Immutable version of a board, taken by {@link CellCollection#snapshot()} and put back by
+ * {@link CellCollection#restore(BoardSnapshot)}. Cells are kept as one array per row, and
+ * rows which have not changed since the previous snapshot of the same board are shared with
+ * it, so a snapshot after a move takes the row references plus the few rows the move touched.
+ * Along with the cells it keeps what the next move depends on: score, unlocked chains,
+ * upcoming tiles, how many of them are drawn ahead and the state of the tile generator.
+ */
+public final class BoardSnapshot {
+	final BoardDimension mDimension;
+	// [row][column], never written after construction
+	final byte[][] mValueRows;
+	final short[][] mNoteRows;
+	final int mScore;
+	final int mUnlocked;
+	final int[] mNext;
+	final int mLookahead;
+	final long mSpawnState;
+	private final long mHash;
+
+	BoardSnapshot(BoardDimension dimension, byte[][] valueRows, short[][] noteRows, int score,
+				  int unlocked, int[] next, int lookahead, long spawnState, long hash) {
+		mDimension = dimension;
+		mValueRows = valueRows;
+		mNoteRows = noteRows;
+		mScore = score;
+		mUnlocked = unlocked;
+		mNext = next;
+		mLookahead = lookahead;
+		mSpawnState = spawnState;
+		mHash = hash;
+	}
+
+	public BoardDimension getDimension() {
+		return mDimension;
+	}
+
+	public int getValue(int rowIndex, int columnIndex) {
+		return mValueRows[rowIndex][columnIndex];
+	}
+
+	public CellNote getNote(int rowIndex, int columnIndex) {
+		return CellNote.fromMask(mNoteRows[rowIndex][columnIndex]);
+	}
+
+	public int getScore() {
+		return mScore;
+	}
+
+	/**
+	 * Returns number of unlocked tile chains, see {@link CellCollection#getCandidateCount()}.
+	 */
+	public int getUnlockedCount() {
+		return mUnlocked;
+	}
+
+	/**
+	 * Returns number of upcoming tiles drawn ahead, see {@link CellCollection#getLookahead()}.
+	 */
+	public int getLookahead() {
+		return mLookahead;
+	}
+
+	/**
+	 * Returns hash of the board, see {@link CellCollection#getHash()}.
+	 *
+	 * @return
+	 */
+	public long getHash() {
+		return mHash;
+	}
+
+	/**
+	 * Finds cells whose value differs from the one in given snapshot of a board of the same
+	 * size. Rows shared by the two snapshots are skipped without looking at their cells, so
+	 * comparing with a recent snapshot of the same board costs little more than the moves
+	 * between them.
+	 *
+	 * @param other
+	 * @param indices Receives indices (row * columns + column) of the cells which differ, can
+	 *                be null if only their number is needed. Must have room for all cells.
+	 * @return Number of cells which differ.
+	 */
+	public int getDifferences(BoardSnapshot other, int[] indices) {
+		if (!mDimension.equals(other.mDimension)) {
+			throw new IllegalArgumentException("Snapshots of boards of different sizes.");
+		}
+		int columns = mDimension.getColumns();
+		int count = 0;
+		for (int row = 0; row < mValueRows.length; row++) {
+			byte[] values = mValueRows[row];
+			byte[] otherValues = other.mValueRows[row];
+			if (values == otherValues) {
+				continue;
+			}
+			for (int column = 0; column < columns; column++) {
+				if (values[column] != otherValues[column]) {
+					if (indices != null) {
+						indices[count] = row * columns + column;
+					}
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,208 @@
+/* 
+ * Copyright (C) 2009 Roman Masek
+ * 
+ * This file is part of OpenSudoku.
+ * 
+ * OpenSudoku is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * OpenSudoku is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with OpenSudoku.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.moire.opensudoku.game;
+
+/**
+ * Sudoku cell. Every cell has value, some notes attached to it and some basic
+ * state (whether it is editable and valid).
+ * <p/>
+ * Cell is only a view: its state lives in the packed arrays of the owning
+ * {@link CellCollection}, so instances are created once per collection and never copied.
+ *
+ * @author romario
+ */
+public class Cell {
+	private final CellCollection mCellCollection;
+	private final int mIndex; // rowIndex * columns + columnIndex
+
+	/**
+	 * Called by {@link CellCollection} when creating views over its cells.
+	 *
+	 * @param cellCollection Collection holding cell's state.
+	 * @param index          Cell's index within collection.
+	 */
+	Cell(CellCollection cellCollection, int index) {
+		mCellCollection = cellCollection;
+		mIndex = index;
+	}
+
+	/**
+	 * Gets cell's index within {@link CellCollection} (rowIndex * columns + columnIndex).
+	 *
+	 * @return Cell's index within CellCollection.
+	 */
+	public int getIndex() {
+		return mIndex;
+	}
+
+	/**
+	 * Gets cell's row index within {@link CellCollection}.
+	 *
+	 * @return Cell's row index within CellCollection.
+	 */
+	public int getRowIndex() {
+		return mIndex / mCellCollection.getColumnCount();
+	}
+
+	/**
+	 * Gets cell's column index within {@link CellCollection}.
+	 *
+	 * @return Cell's column index within CellColection.
+	 */
+	public int getColumnIndex() {
+		return mIndex % mCellCollection.getColumnCount();
+	}
+
+	/**
+	 * Returns sector containing this cell. Sector is 3x3 group of cells.
+	 *
+	 * @return Sector containing this cell.
+	 */
+	public CellGroup getSector() {
+		return mCellCollection.getSector(mIndex);
+	}
+
+	/**
+	 * Returns row containing this cell.
+	 *
+	 * @return Row containing this cell.
+	 */
+	public CellGroup getRow() {
+		return mCellCollection.getRow(mIndex);
+	}
+
+	/**
+	 * Returns column containing this cell.
+	 *
+	 * @return Column containing this cell.
+	 */
+	public CellGroup getColumn() {
+		return mCellCollection.getColumn(mIndex);
+	}
+
+	/**
+	 * Sets cell's value. Value can be 1-9 or 0 if cell should be empty.
+	 *
+	 * @param value 1-9 or 0 if cell should be empty.
+	 */
+	public void setValue(int value) {
+		mCellCollection.setValue(mIndex, value);
+	}
+
+	/**
+	 * Gets cell's value. Value can be 1-9 or 0 if cell is empty.
+	 *
+	 * @return Cell's value. Value can be 1-9 or 0 if cell is empty.
+	 */
+	public int getValue() {
+		return mCellCollection.getValue(mIndex);
+	}
+
+
+	/**
+	 * Gets note attached to the cell.
+	 *
+	 * @return Note attached to the cell.
+	 */
+	public CellNote getNote() {
+		return mCellCollection.getNote(mIndex);
+	}
+
+	/**
+	 * Sets note attached to the cell
+	 *
+	 * @param note Note attached to the cell
+	 */
+	public void setNote(CellNote note) {
+		mCellCollection.setNote(mIndex, note);
+	}
+
+	/**
+	 * Returns whether cell can be edited.
+	 *
+	 * @return True if cell can be edited.
+	 */
+	public boolean isEditable() {
+		return mCellCollection.hasFlag(mIndex, CellCollection.FLAG_EDITABLE);
+	}
+
+	/**
+	 * Sets whether cell can be edited.
+	 *
+	 * @param editable True, if cell should allow editing.
+	 */
+	public void setEditable(Boolean editable) {
+		mCellCollection.setFlag(mIndex, CellCollection.FLAG_EDITABLE, editable);
+	}
+
+	/**
+	 * Sets whether cell contains valid value according to sudoku rules.
+	 *
+	 * @param valid
+	 */
+	public void setValid(Boolean valid) {
+		mCellCollection.setFlag(mIndex, CellCollection.FLAG_VALID, valid);
+	}
+
+	/**
+	 * Returns true, if cell contains valid value according to sudoku rules.
+	 *
+	 * @return True, if cell contains valid value according to sudoku rules.
+	 */
+	public boolean isValid() {
+		return mCellCollection.hasFlag(mIndex, CellCollection.FLAG_VALID);
+	}
+
+	/**
+	 * Returns true, if cell has just been emptied. May or may not be game relevant, but used by UI.
+	 *
+	 * @return True, if cell is highlighted.
+	 */
+	public boolean isHighlighted() {
+		return mCellCollection.hasFlag(mIndex, CellCollection.FLAG_HIGHLIGHT);
+	}
+
+	/**
+	 * Sets whether cell is highlighted.
+	 *
+	 * @param highlighted
+	 */
+	public void setHighlighted(boolean highlighted) {
+		mCellCollection.setFlag(mIndex, CellCollection.FLAG_HIGHLIGHT, highlighted);
+	}
+
+
+	/**
+	 * Appends string representation of this object to the given <code>StringBuilder</code>.
+	 * You can later recreate collection from this string by calling {@link CellCollection#deserialize}.
+	 *
+	 * @param data
+	 */
+	public void serialize(StringBuilder data) {
+		mCellCollection.serializeCell(mIndex, data);
+	}
+
+	public String serialize() {
+		StringBuilder sb = new StringBuilder();
+		serialize(sb);
+		return sb.toString();
+	}
+}
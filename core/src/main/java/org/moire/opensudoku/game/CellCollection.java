@@ -0,0 +1,1465 @@
+/* 
+ * Copyright (C) 2009 Roman Masek
+ * 
+ * This file is part of OpenSudoku.
+ * 
+ * OpenSudoku is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * OpenSudoku is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with OpenSudoku.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.moire.opensudoku.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+import java.util.regex.Pattern;
+
+/**
+ * Collection of sudoku cells. This class in fact represents one board, 9x9 unless
+ * created with another {@link BoardDimension}.
+ *
+ * @author romario
+ */
+public class CellCollection {
+
+	/**
+	 * Size of the default board, also the number of values which can be noted in a cell.
+	 */
+	public static final int SUDOKU_SIZE = 9;
+	/**
+	 * Number of cells of the default board, see {@link #getCellCount()} for the actual one.
+	 */
+	public static final int CELL_COUNT = SUDOKU_SIZE * SUDOKU_SIZE;
+
+	// Bits of mFlags.
+	static final int FLAG_EDITABLE = 1;
+	static final int FLAG_VALID = 2;
+	static final int FLAG_HIGHLIGHT = 4;
+
+	private static final boolean enable_testing = false;
+
+	/**
+	 * String is expected to be in format "00002343243202...", where each number represents
+	 * cell value, no other information can be set using this method.
+	 */
+	public static int DATA_VERSION_PLAIN = 0;
+
+	/**
+	 * See {@link #DATA_PATTERN_VERSION_1} and {@link #serialize()}.
+	 */
+	public static int DATA_VERSION_1 = 1;
+
+	/**
+	 * Same as {@link #DATA_VERSION_1}, preceded by the board dimension. Used for boards other
+	 * than 9x9.
+	 */
+	public static int DATA_VERSION_2 = 2;
+
+	private final BoardDimension mDimension;
+	private final int mRowCount;
+	private final int mColumnCount;
+	private final int mCellCount;
+
+	// Cell's data, kept in parallel arrays indexed by rowIndex * columns + columnIndex.
+	// Values are tiles of mCatalog, which comfortably fit in a byte.
+	private final byte[] mValues;
+	private final short[] mNotes; // see CellNote#getNotedMask
+	private final byte[] mFlags;
+	private int mHighlightedCount = 0; // cells with FLAG_HIGHLIGHT
+
+	// Same values as mValues, as one bitboard per tile value. Every write to mValues
+	// must go through putValue to keep the two in sync.
+	private final TileBoards mBoards;
+	// Clusters of connected equal tiles, also maintained by putValue.
+	private final TileClusters mClusters;
+
+	// Board summary, kept up to date by putValue: number of non-empty cells, number of cells
+	// holding each value (index 0 counts empty cells) and highest value on the board.
+	private int mFilledCount = 0;
+	private final int[] mValueCounts;
+	private int mHighestValue = 0;
+
+	// Zobrist hash of cell values, kept up to date by putValue (see getHash()).
+	private long mCellsHash = 0;
+
+	// Last snapshot taken or restored, and rows whose values or notes have changed since then
+	// (maintained by putValue and setNote). The board is mSnapshot with these rows replaced.
+	private BoardSnapshot mSnapshot;
+	private final boolean[] mRowChanged;
+	private final int[] mChangedRows;
+	private int mChangedRowCount = 0;
+
+	// Length of the horizontal/vertical run of equal tiles each cell belongs to (0 for empty
+	// cells), kept up to date by putValue. Char, because lines may be longer than a byte.
+	private final char[] mRunsH;
+	private final char[] mRunsV;
+
+	// Cascade resolver: rule deciding what matches, plus queue of cells whose value changed
+	// and which still need to be evaluated. Each cell is queued at most once, so one entry
+	// per cell is always enough.
+	private MatchRule mMatchRule = MatchRule.LINES;
+	private final int[] mQueue;
+	private final boolean[] mQueued;
+	private int mQueueHead = 0;
+	private int mQueueSize = 0;
+	private final int[] mMatched;
+
+	// Views over the arrays above, created once so that cells can be compared by identity.
+	private final Cell[] mCells;
+
+	// Chains of tiles, see EvolutionCatalog. The tables are the catalog's own, kept here for
+	// the match hot path: tile each tile evolves into, score for clearing it and chain it unlocks.
+	private final EvolutionCatalog mCatalog;
+	private final int[] mNextTiers;
+	private final int[] mTileScores;
+	private final int[] mUnlocks;
+
+	private int score = 0;
+	public int mNUnlocked = 1; // TODO: Create accessors etc
+	public int mCheatMode = 0; // TODO: Create accessors etc
+
+	/**
+	 * Number of upcoming tiles drawn ahead by default, see {@link #setLookahead(int)}.
+	 */
+	public static final int DEFAULT_LOOKAHEAD = 3;
+	public static final int MAX_LOOKAHEAD = 16;
+
+	// Upcoming tiles, a ring buffer of mNextCount tiles starting at mNextHead; the first one
+	// is placed next. Between moves it holds mLookahead tiles.
+	private final int[] mNext = new int[MAX_LOOKAHEAD];
+	private int mNextHead = 0;
+	private int mNextCount = 0;
+	private int mLookahead = DEFAULT_LOOKAHEAD;
+
+	SplitMix64 rand = new SplitMix64(System.nanoTime());
+
+	// Draws the chain of each upcoming tile, built for mSamplerUnlocked chains (0 when stale).
+	private SpawnWeights mSpawnWeights = SpawnWeights.UNIFORM;
+	private final AliasSampler mSampler = new AliasSampler();
+	private int mSamplerUnlocked = 0;
+
+	// Groups of cells, which should contain unique numbers: rows (as returned by Cell#getRow,
+	// one per column index) first, then columns (one per row index), then 3x3 sectors.
+	// Group ids below index into this array.
+	private final int mGroupCount;
+	private final int mSectorRows; // sectors in one column of sectors
+	private final CellGroup[] mGroups;
+
+	// Groups changed since last validate(): flag per group id, plus list of the flagged ids.
+	private final boolean[] mGroupDirty;
+	private final int[] mDirtyGroups;
+	private int mDirtyGroupCount = 0;
+	// Values which are present more than once in each group, one bit per value.
+	private final long[] mGroupDuplicates;
+	// Number of groups with mGroupDuplicates other than 0.
+	private int mInvalidGroupCount = 0;
+
+	private boolean mOnChangeEnabled = true;
+
+	private final List<OnChangeListener> mChangeListeners = new ArrayList<OnChangeListener>();
+
+	private Cell selectedCell; // Cell user is in, only able to place in this one. Unrelated to old notion of "selected" in other classes.
+
+	public Cell getSelectedCell()
+	{
+		return selectedCell;
+	}
+
+	/**
+	 * Creates empty sudoku.
+	 *
+	 * @return
+	 */
+	public static CellCollection createEmpty() {
+		return createEmpty(BoardDimension.DEFAULT);
+	}
+
+	/**
+	 * Creates empty board of given size.
+	 *
+	 * @param dimension
+	 * @return
+	 */
+	public static CellCollection createEmpty(BoardDimension dimension) {
+		return createEmpty(dimension, EvolutionCatalog.getDefault());
+	}
+
+	/**
+	 * Creates empty board of given size played with given tile chains.
+	 *
+	 * @param dimension
+	 * @param catalog
+	 * @return
+	 */
+	public static CellCollection createEmpty(BoardDimension dimension, EvolutionCatalog catalog) {
+		CellCollection ret = new CellCollection(dimension, catalog);
+
+		ret.fillNext();
+
+		return ret;
+	}
+
+	/**
+	 * Draws upcoming tiles until there are {@link #getLookahead()} of them.
+	 */
+	public void fillNext()
+	{
+		while (mNextCount < mLookahead)
+		{
+			int idx = enable_testing ? mNUnlocked - 1 : getSampler().sample(rand);
+			mNext[(mNextHead + mNextCount) % MAX_LOOKAHEAD] = getCandidate(idx);
+			mNextCount++;
+		}
+	}
+
+	/**
+	 * Throws away upcoming tiles and draws them anew, e.g. after {@link #setSeed(long)}.
+	 */
+	public void resetNext() {
+		mNextCount = 0;
+		fillNext();
+		onChange();
+	}
+
+	/**
+	 * Replaces upcoming tiles by given ones, which may be fewer than the lookahead.
+	 */
+	void setNext(int[] tiles, int count) {
+		if (count > MAX_LOOKAHEAD) {
+			throw new IllegalArgumentException("At most " + MAX_LOOKAHEAD + " tiles can come next.");
+		}
+		System.arraycopy(tiles, 0, mNext, 0, count);
+		mNextHead = 0;
+		mNextCount = count;
+	}
+
+	/**
+	 * Returns tile which is placed next, 0 if there is none.
+	 *
+	 * @return
+	 */
+	public int getNext() {
+		return mNextCount == 0 ? 0 : mNext[mNextHead];
+	}
+
+	/**
+	 * Returns upcoming tile at given position, 0 is the one placed next.
+	 *
+	 * @param position 0 to {@link #getNextCount()} - 1.
+	 * @return
+	 */
+	public int getNext(int position) {
+		if (position < 0 || position >= mNextCount) {
+			throw new IndexOutOfBoundsException("No upcoming tile at " + position + ".");
+		}
+		return mNext[(mNextHead + position) % MAX_LOOKAHEAD];
+	}
+
+	/**
+	 * Returns number of upcoming tiles known.
+	 *
+	 * @return
+	 */
+	public int getNextCount() {
+		return mNextCount;
+	}
+
+	/**
+	 * Copies upcoming tiles into given array, the one placed next first.
+	 *
+	 * @param out Array of at least {@link #getNextCount()} elements.
+	 * @return Number of tiles copied.
+	 */
+	public int getNext(int[] out) {
+		for (int i = 0; i < mNextCount; i++) {
+			out[i] = mNext[(mNextHead + i) % MAX_LOOKAHEAD];
+		}
+		return mNextCount;
+	}
+
+	public int getLookahead() {
+		return mLookahead;
+	}
+
+	/**
+	 * Sets number of upcoming tiles drawn ahead, {@link #DEFAULT_LOOKAHEAD} by default. Tiles
+	 * beyond a shorter lookahead are dropped.
+	 *
+	 * @param lookahead 1 to {@link #MAX_LOOKAHEAD}.
+	 */
+	public void setLookahead(int lookahead) {
+		mLookahead = checkLookahead(lookahead);
+		mNextCount = Math.min(mNextCount, lookahead);
+		fillNext();
+		onChange();
+	}
+
+	private static int checkLookahead(int lookahead) {
+		if (lookahead < 1 || lookahead > MAX_LOOKAHEAD) {
+			throw new IllegalArgumentException("Lookahead must be between 1 and " + MAX_LOOKAHEAD + ".");
+		}
+		return lookahead;
+	}
+
+	/**
+	 * Reseeds generator of the tiles which come next, so that they can be reproduced. Tiles
+	 * already drawn stay, see {@link #resetNext()}.
+	 */
+	public void setSeed(long seed) {
+		rand.setState(seed);
+	}
+
+	/**
+	 * Returns state of the generator of the tiles which come next, it is saved by
+	 * {@link #serialize()}.
+	 *
+	 * @return
+	 */
+	public long getSpawnState() {
+		return rand.getState();
+	}
+
+	public int popNext()
+	{
+		fillNext();
+		int ret = mNext[mNextHead];
+		mNextHead = (mNextHead + 1) % MAX_LOOKAHEAD;
+		mNextCount--;
+		fillNext();
+		return ret;
+	}
+
+	/**
+	 * Returns 64-bit Zobrist hash of the game state: cell values, number of unlocked tile sets
+	 * and the tile which will be placed next. Equal states have equal hashes, also across
+	 * collections and processes. Cell values are hashed incrementally on every change, the
+	 * rest is mixed in here, so this takes constant time.
+	 *
+	 * @return
+	 */
+	public long getHash() {
+		return mCellsHash ^ Zobrist.unlockedKey(mNUnlocked)
+				^ Zobrist.nextKey(getNext());
+	}
+
+	/**
+	 * Returns outcome of the board for the tile which will be placed next.
+	 *
+	 * @return
+	 */
+	public GameOutcome getOutcome() {
+		return GameOutcome.evaluate(this, getNext());
+	}
+
+	/**
+	 * Return true, if no value is entered in any of cells.
+	 *
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return mFilledCount == 0;
+	}
+
+	/**
+	 * Returns number of cells with value other than 0.
+	 *
+	 * @return
+	 */
+	public int getFilledCount() {
+		return mFilledCount;
+	}
+
+	/**
+	 * Returns number of cells holding given value.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public int getValueCount(int value) {
+		return mValueCounts[value];
+	}
+
+	/**
+	 * Returns highest value (most evolved tile) on the board, 0 if board is empty.
+	 *
+	 * @return
+	 */
+	public int getHighestValue() {
+		return mHighestValue;
+	}
+
+	/**
+	 * Resolves matches caused by placing a tile into <code>hint_cell</code>. Matched tiles are
+	 * removed and the tile evolves; every evolved tile is queued and evaluated again until no
+	 * more matches are found.
+	 * <p/>
+	 * Each match removes at least two tiles from the board for good, so a cascade takes at
+	 * most getCellCount() / 2 steps, each bounded by the cost of the match rule.
+	 *
+	 * @param hint_cell Cell where the tile has been placed.
+	 */
+	public void consumeMatchingLines(Cell hint_cell)
+	{
+		clearHighlights();
+
+		mOnChangeEnabled = false;
+
+		enqueue(hint_cell.getIndex());
+		while (mQueueSize > 0) {
+			int index = dequeue();
+			int old_val = mValues[index];
+
+			checkUnlock(old_val);
+
+			if (old_val == 0) {
+				continue;
+			}
+
+			int matched = mMatchRule.findMatch(this, index, mMatched);
+			if (matched == 0) {
+				continue;
+			}
+
+			int d_score = 0;
+			for (int i = 0; i < matched; i++) {
+				d_score += mTileScores[old_val];
+				storeValue(mMatched[i], old_val, 0);
+			}
+			mClusters.onTilesCleared(mMatched, matched, old_val);
+			putValue(index, mNextTiers[old_val]);
+			enqueue(index);
+
+			score += d_score;
+		}
+
+		mOnChangeEnabled = true;
+		onChange();
+	}
+
+	private void checkUnlock(int value)
+	{
+		// chains are unlocked in order, a tile of an earlier chain unlocks the next one
+		if (mUnlocks[value] == mNUnlocked)
+		{
+			++mNUnlocked;
+		}
+	}
+
+	private void enqueue(int index) {
+		if (!mQueued[index]) {
+			mQueued[index] = true;
+			mQueue[(mQueueHead + mQueueSize) % mCellCount] = index;
+			mQueueSize++;
+		}
+	}
+
+	private int dequeue() {
+		int index = mQueue[mQueueHead];
+		mQueueHead = (mQueueHead + 1) % mCellCount;
+		mQueueSize--;
+		mQueued[index] = false;
+		return index;
+	}
+
+	public MatchRule getMatchRule() {
+		return mMatchRule;
+	}
+
+	/**
+	 * Sets rule deciding which tiles are consumed, {@link MatchRule#LINES} by default.
+	 *
+	 * @param matchRule
+	 */
+	public void setMatchRule(MatchRule matchRule) {
+		if (matchRule == null) {
+			throw new IllegalArgumentException("Match rule cannot be null.");
+		}
+		mMatchRule = matchRule;
+	}
+
+	public SpawnWeights getSpawnWeights() {
+		return mSpawnWeights;
+	}
+
+	/**
+	 * Sets chances of the unlocked chains to come next, {@link SpawnWeights#UNIFORM} by
+	 * default. Tiles already drawn are kept.
+	 *
+	 * @param spawnWeights
+	 */
+	public void setSpawnWeights(SpawnWeights spawnWeights) {
+		if (spawnWeights == null) {
+			throw new IllegalArgumentException("Spawn weights cannot be null.");
+		}
+		mSpawnWeights = spawnWeights;
+		mSamplerUnlocked = 0;
+	}
+
+	/**
+	 * Returns sampler for the chains unlocked now, rebuilding it only when their number changed.
+	 */
+	private AliasSampler getSampler() {
+		if (mSamplerUnlocked != mNUnlocked) {
+			mSampler.build(mSpawnWeights, mNUnlocked);
+			mSamplerUnlocked = mNUnlocked;
+		}
+		return mSampler;
+	}
+
+	/**
+	 * Generates debug game.
+	 *
+	 * @return
+	 */
+	public static CellCollection createDebugGame() {
+		int[][] values = {
+				{0, 0, 0, 4, 5, 6, 7, 8, 9,},
+				{0, 0, 0, 7, 8, 9, 1, 2, 3,},
+				{0, 0, 0, 1, 2, 3, 4, 5, 6,},
+				{2, 3, 4, 0, 0, 0, 8, 9, 1,},
+				{5, 6, 7, 0, 0, 0, 2, 3, 4,},
+				{8, 9, 1, 0, 0, 0, 5, 6, 7,},
+				{3, 4, 5, 6, 7, 8, 9, 1, 2,},
+				{6, 7, 8, 9, 1, 2, 3, 4, 5,},
+				{9, 1, 2, 3, 4, 5, 6, 7, 8,},
+		};
+		CellCollection debugGame = new CellCollection(BoardDimension.DEFAULT);
+		for (int r = 0; r < SUDOKU_SIZE; r++) {
+			for (int c = 0; c < SUDOKU_SIZE; c++) {
+				debugGame.putValue(r * SUDOKU_SIZE + c, values[r][c]);
+			}
+		}
+		debugGame.markFilledCellsAsNotEditable();
+		return debugGame;
+	}
+
+	/**
+	 * Creates empty collection, all cells are editable and valid.
+	 */
+	private CellCollection(BoardDimension dimension) {
+		this(dimension, EvolutionCatalog.getDefault());
+	}
+
+	private CellCollection(BoardDimension dimension, EvolutionCatalog catalog) {
+		mDimension = dimension;
+		mCatalog = catalog;
+		mNextTiers = catalog.mNextTiers;
+		mTileScores = catalog.mScores;
+		mUnlocks = catalog.mUnlocks;
+		mRowCount = dimension.getRows();
+		mColumnCount = dimension.getColumns();
+		mCellCount = dimension.getCellCount();
+
+		mValues = new byte[mCellCount];
+		mNotes = new short[mCellCount];
+		mFlags = new byte[mCellCount];
+		mRunsH = new char[mCellCount];
+		mRunsV = new char[mCellCount];
+		mRowChanged = new boolean[mRowCount];
+		mChangedRows = new int[mRowCount];
+		mQueue = new int[mCellCount];
+		mQueued = new boolean[mCellCount];
+		mMatched = new int[mCellCount];
+		mCells = new Cell[mCellCount];
+
+		mSectorRows = (mRowCount + 2) / 3;
+		mGroupCount = mColumnCount + mRowCount + mSectorRows * ((mColumnCount + 2) / 3);
+		mGroups = new CellGroup[mGroupCount];
+		mGroupDirty = new boolean[mGroupCount];
+		mDirtyGroups = new int[mGroupCount];
+		mGroupDuplicates = new long[mGroupCount];
+
+		mBoards = new TileBoards(dimension, catalog.getValueCount());
+		mValueCounts = new int[catalog.getValueCount()];
+		mValueCounts[0] = mCellCount;
+		mClusters = new TileClusters(dimension, mValues);
+		for (int i = 0; i < mCellCount; i++) {
+			mFlags[i] = FLAG_EDITABLE | FLAG_VALID;
+		}
+		initCollection();
+		markAllGroupsDirty();
+	}
+
+	/**
+	 * Gets cell at given position.
+	 *
+	 * @param rowIndex
+	 * @param colIndex
+	 * @return
+	 */
+	public Cell getCell(int rowIndex, int colIndex) {
+		return mCells[rowIndex * mColumnCount + colIndex];
+	}
+
+	public BoardDimension getDimension() {
+		return mDimension;
+	}
+
+	public int getRowCount() {
+		return mRowCount;
+	}
+
+	public int getColumnCount() {
+		return mColumnCount;
+	}
+
+	public int getCellCount() {
+		return mCellCount;
+	}
+
+	// Accessors used by Cell and CellGroup views.
+
+	int getValue(int index) {
+		return mValues[index];
+	}
+
+	TileBoards getBoards() {
+		return mBoards;
+	}
+
+	TileClusters getClusters() {
+		return mClusters;
+	}
+
+	void setValue(int index, int value) {
+		putValue(index, value);
+		onChange();
+	}
+
+	private void putValue(int index, int value) {
+		int oldValue = mValues[index];
+		if (oldValue == value) {
+			return;
+		}
+		storeValue(index, oldValue, value);
+		mClusters.onValueChanged(index, oldValue);
+	}
+
+	/**
+	 * Changes value of given cell and everything derived from it, except for the clusters.
+	 */
+	private void storeValue(int index, int oldValue, int value) {
+		int row = index / mColumnCount;
+		int column = index % mColumnCount;
+		mBoards.move(row, column, oldValue, value);
+		mValues[index] = (byte) value;
+		markRowChanged(row);
+		updateCounts(oldValue, value);
+		mCellsHash ^= Zobrist.cellKey(index, oldValue) ^ Zobrist.cellKey(index, value);
+		markGroupDirty(rowGroupId(index));
+		markGroupDirty(columnGroupId(index));
+		markGroupDirty(sectorGroupId(index));
+
+		updateRuns(mRunsH, row * mColumnCount, 1, column, mColumnCount);
+		updateRuns(mRunsV, column, mColumnCount, row, mRowCount);
+	}
+
+	private void markRowChanged(int row) {
+		if (!mRowChanged[row]) {
+			mRowChanged[row] = true;
+			mChangedRows[mChangedRowCount++] = row;
+		}
+	}
+
+	private void clearChangedRows() {
+		for (int i = 0; i < mChangedRowCount; i++) {
+			mRowChanged[mChangedRows[i]] = false;
+		}
+		mChangedRowCount = 0;
+	}
+
+	/**
+	 * Returns immutable copy of the board, see {@link BoardSnapshot}. Rows which have not
+	 * changed since the previous snapshot was taken or restored are shared with it, so this
+	 * takes time and memory proportional to the number of rows plus the cells of the rows
+	 * changed in between.
+	 *
+	 * @return
+	 */
+	public BoardSnapshot snapshot() {
+		byte[][] valueRows;
+		short[][] noteRows;
+		if (mSnapshot == null) {
+			valueRows = new byte[mRowCount][];
+			noteRows = new short[mRowCount][];
+			for (int row = 0; row < mRowCount; row++) {
+				copyRow(row, valueRows, noteRows);
+			}
+		} else {
+			valueRows = mSnapshot.mValueRows.clone();
+			noteRows = mSnapshot.mNoteRows.clone();
+			for (int i = 0; i < mChangedRowCount; i++) {
+				copyRow(mChangedRows[i], valueRows, noteRows);
+			}
+		}
+		clearChangedRows();
+
+		int[] next = new int[mNextCount];
+		for (int i = 0; i < mNextCount; i++) {
+			next[i] = getNext(i);
+		}
+		mSnapshot = new BoardSnapshot(mDimension, valueRows, noteRows, score, mNUnlocked, next,
+				mLookahead, rand.getState(), getHash());
+		return mSnapshot;
+	}
+
+	private void copyRow(int row, byte[][] valueRows, short[][] noteRows) {
+		int first = row * mColumnCount;
+		valueRows[row] = new byte[mColumnCount];
+		System.arraycopy(mValues, first, valueRows[row], 0, mColumnCount);
+		noteRows[row] = new short[mColumnCount];
+		System.arraycopy(mNotes, first, noteRows[row], 0, mColumnCount);
+	}
+
+	/**
+	 * Puts the board back to given snapshot of a board of the same size played with the same
+	 * tiles. Only rows which differ from the last snapshot taken or restored are written, so
+	 * going back to a recent snapshot of this board costs little more than the moves made
+	 * since. Cells are not validated.
+	 *
+	 * @param snapshot
+	 */
+	public void restore(BoardSnapshot snapshot) {
+		if (!snapshot.mDimension.equals(mDimension)) {
+			throw new IllegalArgumentException("Snapshot is of a board of another size.");
+		}
+		for (int row = 0; row < mRowCount; row++) {
+			if (mSnapshot == null || mRowChanged[row]
+					|| mSnapshot.mValueRows[row] != snapshot.mValueRows[row]
+					|| mSnapshot.mNoteRows[row] != snapshot.mNoteRows[row]) {
+				byte[] values = snapshot.mValueRows[row];
+				short[] notes = snapshot.mNoteRows[row];
+				int first = row * mColumnCount;
+				for (int column = 0; column < mColumnCount; column++) {
+					putValue(first + column, values[column]);
+					mNotes[first + column] = notes[column];
+				}
+			}
+		}
+		clearChangedRows();
+
+		score = snapshot.mScore;
+		mNUnlocked = snapshot.mUnlocked;
+		mLookahead = snapshot.mLookahead;
+		setNext(snapshot.mNext, snapshot.mNext.length);
+		rand.setState(snapshot.mSpawnState);
+		mSnapshot = snapshot;
+		onChange();
+	}
+
+	private void markGroupDirty(int group) {
+		if (!mGroupDirty[group]) {
+			mGroupDirty[group] = true;
+			mDirtyGroups[mDirtyGroupCount++] = group;
+		}
+	}
+
+	private void markAllGroupsDirty() {
+		for (int g = 0; g < mGroupCount; g++) {
+			markGroupDirty(g);
+		}
+	}
+
+	private void updateCounts(int oldValue, int value) {
+		mValueCounts[oldValue]--;
+		mValueCounts[value]++;
+		if (oldValue == 0) {
+			mFilledCount++;
+		} else if (value == 0) {
+			mFilledCount--;
+		}
+
+		if (value > mHighestValue) {
+			mHighestValue = value;
+		} else {
+			while (mHighestValue > 0 && mValueCounts[mHighestValue] == 0) {
+				mHighestValue--;
+			}
+		}
+	}
+
+	/**
+	 * Refreshes run lengths in one line (row or column) after value at <code>pos</code> has
+	 * changed. Only the run of the cell itself and the runs of its two neighbours can change,
+	 * so this is O(run length).
+	 *
+	 * @param runs   mRunsH or mRunsV.
+	 * @param first  Index of the first cell of the line.
+	 * @param step   Distance between indices of neighbouring cells in the line.
+	 * @param pos    Position of changed cell within the line.
+	 * @param length Number of cells in the line.
+	 */
+	private void updateRuns(char[] runs, int first, int step, int pos, int length) {
+		int value = mValues[first + pos * step];
+		if (value == 0) {
+			runs[first + pos * step] = 0;
+		} else {
+			relabelRun(runs, first, step, pos, length, value);
+		}
+		if (pos > 0) {
+			int left = mValues[first + (pos - 1) * step];
+			if (left != 0 && left != value) {
+				relabelRun(runs, first, step, pos - 1, length, left);
+			}
+		}
+		if (pos < length - 1) {
+			int right = mValues[first + (pos + 1) * step];
+			if (right != 0 && right != value) {
+				relabelRun(runs, first, step, pos + 1, length, right);
+			}
+		}
+	}
+
+	private void relabelRun(char[] runs, int first, int step, int pos, int length, int value) {
+		int start = pos;
+		while (start > 0 && mValues[first + (start - 1) * step] == value) {
+			start--;
+		}
+		int end = pos + 1;
+		while (end < length && mValues[first + end * step] == value) {
+			end++;
+		}
+		for (int p = start; p < end; p++) {
+			runs[first + p * step] = (char) (end - start);
+		}
+	}
+
+	CellNote getNote(int index) {
+		return CellNote.fromMask(mNotes[index]);
+	}
+
+	void setNote(int index, CellNote note) {
+		mNotes[index] = (short) note.getNotedMask();
+		markRowChanged(index / mColumnCount);
+		onChange();
+	}
+
+	boolean hasFlag(int index, int flag) {
+		return (mFlags[index] & flag) != 0;
+	}
+
+	void setFlag(int index, int flag, boolean set) {
+		if ((flag & FLAG_HIGHLIGHT) != 0 && hasFlag(index, FLAG_HIGHLIGHT) != set) {
+			mHighlightedCount += set ? 1 : -1;
+		}
+		if (set) {
+			mFlags[index] |= flag;
+		} else {
+			mFlags[index] &= ~flag;
+		}
+		onChange();
+	}
+
+	CellGroup getSector(int index) {
+		return mGroups[sectorGroupId(index)];
+	}
+
+	CellGroup getRow(int index) {
+		return mGroups[rowGroupId(index)];
+	}
+
+	CellGroup getColumn(int index) {
+		return mGroups[columnGroupId(index)];
+	}
+
+	private int rowGroupId(int index) {
+		return index % mColumnCount;
+	}
+
+	private int columnGroupId(int index) {
+		return mColumnCount + index / mColumnCount;
+	}
+
+	private int sectorGroupId(int index) {
+		int r = index / mColumnCount;
+		int c = index % mColumnCount;
+		return mColumnCount + mRowCount + ((c / 3) * mSectorRows) + (r / 3);
+	}
+
+	/**
+	 * Returns length of the horizontal run of equal tiles containing given cell, 0 if cell is empty.
+	 */
+	public int getRunLengthH(int rowIndex, int colIndex) {
+		return mRunsH[rowIndex * mColumnCount + colIndex];
+	}
+
+	/**
+	 * Returns length of the vertical run of equal tiles containing given cell, 0 if cell is empty.
+	 */
+	public int getRunLengthV(int rowIndex, int colIndex) {
+		return mRunsV[rowIndex * mColumnCount + colIndex];
+	}
+
+	public void clearHighlights() {
+		// called on every move, so skip the scan of the board when nothing is highlighted
+		if (mHighlightedCount > 0) {
+			for (int i = 0; i < mCellCount; i++) {
+				mFlags[i] &= ~FLAG_HIGHLIGHT;
+			}
+			mHighlightedCount = 0;
+		}
+		onChange();
+	}
+
+	public int getScore()
+	{
+		return score;
+	}
+
+	/**
+	 * Returns tiles which may come next, see {@link #getCandidateProbability(int)} for their
+	 * chances. Allocates, {@link #getCandidate(int)} does not.
+	 *
+	 * @return
+	 */
+	public int[] getInitialCandidates()
+	{
+		int[] ret = new int[mNUnlocked];
+		for(int i=0;i<mNUnlocked;++i) ret[i] = getCandidate(i);
+		return ret;
+	}
+
+	/**
+	 * Returns number of tiles which may come next, one per unlocked chain.
+	 */
+	public int getCandidateCount() {
+		return mNUnlocked;
+	}
+
+	/**
+	 * Returns first tile of given chain.
+	 *
+	 * @param chain 0 to {@link #getCandidateCount()} - 1.
+	 * @return
+	 */
+	public int getCandidate(int chain) {
+		return mCatalog.getChainStart(chain);
+	}
+
+	/**
+	 * Returns chance of the first tile of given chain to come next, see
+	 * {@link #setSpawnWeights(SpawnWeights)}.
+	 *
+	 * @param chain 0 to {@link #getCandidateCount()} - 1.
+	 * @return
+	 */
+	public double getCandidateProbability(int chain) {
+		return getSampler().probability(chain);
+	}
+
+	private int scoreForNFoods(int n)
+	{
+		return n*10;
+	}
+
+	public String IdxToEmoji(int value)
+	{
+		return mCatalog.getEmoji(value);
+	}
+
+	/**
+	 * Returns tile chains the board is played with.
+	 *
+	 * @return
+	 */
+	public EvolutionCatalog getEvolutionCatalog() {
+		return mCatalog;
+	}
+
+	/**
+	 * Returns upcoming tiles, the one placed next first.
+	 *
+	 * @return
+	 */
+	public String getNextEmojisString()
+	{
+		StringBuilder str = new StringBuilder();
+		for (int i = 0; i < mNextCount; i++) {
+			str.append(IdxToEmoji(getNext(i)));
+		}
+		return str.toString();
+	}
+
+	public String getUnlockedEmojisString()
+	{
+		StringBuilder str = new StringBuilder();
+		int chains = enable_testing ? mCatalog.getChainCount() : mNUnlocked;
+		for (int chain = 0; chain < chains; chain++) {
+			str.append(IdxToEmoji(getCandidate(chain)));
+		}
+		return str.toString();
+	}
+
+	// TODO: Remove
+	public void markAllCellsAsValid() {
+		for (int i = 0; i < mCellCount; i++) {
+			mFlags[i] |= FLAG_VALID;
+		}
+		// flags no longer match mGroupDuplicates, next validation has to start over
+		markAllGroupsDirty();
+		onChange();
+	}
+
+	public void setLocation(double lat, double lon)
+	{
+		int cell_width_m = 10;
+		int y = mRowCount - 1 - (mRowCount+((int)(lat*111111/cell_width_m))%mRowCount)%mRowCount;
+		int x = (mColumnCount+((int)(lon*60000/cell_width_m))%mColumnCount)%mColumnCount;
+		Cell cell = mCells[y * mColumnCount + x];
+		if (cell != selectedCell) {
+			selectedCell = cell;
+			onChange();
+		}
+	}
+
+	/**
+	 * Sets the cell user is in, null if user is in no cell of this board.
+	 */
+	public void setSelectedCell(Cell cell)
+	{
+		selectedCell = cell;
+		onChange();
+	}
+
+	/**
+	 * Copies values of all cells into given array, in cell index order.
+	 *
+	 * @param out Array of at least {@link #getCellCount()} elements.
+	 * @return out
+	 */
+	public byte[] getValues(byte[] out) {
+		System.arraycopy(mValues, 0, out, 0, mCellCount);
+		return out;
+	}
+
+	/**
+	 * Replaces values of all cells at once, listeners are notified just once. Matches are not
+	 * resolved, values are taken as they are.
+	 *
+	 * @param values Array of {@link #getCellCount()} elements, in cell index order.
+	 */
+	public void setValues(byte[] values) {
+		for (int i = 0; i < mCellCount; i++) {
+			putValue(i, values[i]);
+		}
+		onChange();
+	}
+
+	public void toggleCheatMode()
+	{
+		mCheatMode = mCheatMode>0 ? 0 : 1;
+		onChange();
+	}
+
+	public void reset()
+	{
+		// TODO: Call this function from constructor instead of setting score manually
+		mNUnlocked = 1;
+		score = 0;
+		mNextCount = 0;
+		fillNext();
+	}
+
+	/**
+	 * Validates numbers in collection according to the sudoku rules. Cells with invalid
+	 * values are marked - you can use getInvalid method of cell to find out whether cell
+	 * contains valid value.
+	 * <p/>
+	 * Only groups changed since the previous call are checked again, so validating after
+	 * a single move or undo touches at most three groups, whatever the size of the board.
+	 *
+	 * @return True if validation is successful.
+	 */
+	public boolean validate() {
+		for (int d = 0; d < mDirtyGroupCount; d++) {
+			int g = mDirtyGroups[d];
+			long duplicates = mGroups[g].findDuplicates();
+			if ((mGroupDuplicates[g] != 0) != (duplicates != 0)) {
+				mInvalidGroupCount += duplicates != 0 ? 1 : -1;
+			}
+			mGroupDuplicates[g] = duplicates;
+		}
+
+		// a cell is valid if its value isn't repeated in any of its three groups
+		for (int d = 0; d < mDirtyGroupCount; d++) {
+			int g = mDirtyGroups[d];
+			mGroupDirty[g] = false;
+			CellGroup group = mGroups[g];
+			for (int i = 0; i < group.size(); i++) {
+				int index = group.getIndex(i);
+				long duplicates = mGroupDuplicates[rowGroupId(index)]
+						| mGroupDuplicates[columnGroupId(index)]
+						| mGroupDuplicates[sectorGroupId(index)];
+				if ((duplicates & (1L << mValues[index])) == 0) {
+					mFlags[index] |= FLAG_VALID;
+				} else {
+					mFlags[index] &= ~FLAG_VALID;
+				}
+			}
+		}
+		mDirtyGroupCount = 0;
+
+		onChange();
+
+		return mInvalidGroupCount == 0;
+	}
+
+	/**
+	 * Marks all cells as editable.
+	 */
+	public void markAllCellsAsEditable() {
+		for (int i = 0; i < mCellCount; i++) {
+			mFlags[i] |= FLAG_EDITABLE;
+		}
+		onChange();
+	}
+
+	/**
+	 * Marks all filled cells (cells with value other than 0) as not editable.
+	 */
+	public void markFilledCellsAsNotEditable() {
+		for (int i = 0; i < mCellCount; i++) {
+			if (mValues[i] == 0) {
+				mFlags[i] |= FLAG_EDITABLE;
+			} else {
+				mFlags[i] &= ~FLAG_EDITABLE;
+			}
+		}
+		onChange();
+	}
+
+
+	/**
+	 * Returns how many times each value is used in <code>CellCollection</code>.
+	 * Counts are maintained on every change, so this only copies them.
+	 *
+	 * @param counts Array to fill, reused if it has room for every value (see {@link #getValueKindCount()}).
+	 * @return Array where element n holds number of cells with value n (element 0 counts empty cells).
+	 */
+	public int[] getValuesUseCount(int[] counts) {
+		if (counts == null || counts.length < mValueCounts.length) {
+			counts = new int[mValueCounts.length];
+		}
+		System.arraycopy(mValueCounts, 0, counts, 0, mValueCounts.length);
+		return counts;
+	}
+
+	/**
+	 * Returns number of distinct cell values, including 0 for empty cell.
+	 *
+	 * @return
+	 */
+	public int getValueKindCount() {
+		return mValueCounts.length;
+	}
+
+	/**
+	 * Initializes collection, initialization has two steps:
+	 * 1) Groups of cells which must contain unique numbers are created.
+	 * 2) Cell views are created and added to their groups.
+	 */
+	private void initCollection() {
+		for (int c = 0; c < mColumnCount; c++) {
+			mGroups[c] = new CellGroup(this, mRowCount);
+		}
+		for (int r = 0; r < mRowCount; r++) {
+			mGroups[mColumnCount + r] = new CellGroup(this, mColumnCount);
+		}
+		for (int g = mColumnCount + mRowCount; g < mGroupCount; g++) {
+			// sectors at the right and bottom edges may be cut short
+			int sector = g - mColumnCount - mRowCount;
+			int rows = Math.min(3, mRowCount - (sector % mSectorRows) * 3);
+			int columns = Math.min(3, mColumnCount - (sector / mSectorRows) * 3);
+			mGroups[g] = new CellGroup(this, rows * columns);
+		}
+
+		for (int i = 0; i < mCellCount; i++) {
+			mCells[i] = new Cell(this, i);
+			getSector(i).addCell(i);
+			getRow(i).addCell(i);
+			getColumn(i).addCell(i);
+		}
+	}
+
+	/**
+	 * Creates instance from given <code>StringTokenizer</code>.
+	 *
+	 * @param data
+	 * @return
+	 */
+	public static CellCollection deserialize(StringTokenizer data) {
+		return deserialize(data, BoardDimension.DEFAULT);
+	}
+
+	/**
+	 * Creates instance of given size from given <code>StringTokenizer</code>.
+	 *
+	 * @param data
+	 * @param dimension
+	 * @return
+	 */
+	public static CellCollection deserialize(StringTokenizer data, BoardDimension dimension) {
+		return deserialize(data, dimension, EvolutionCatalog.getDefault());
+	}
+
+	/**
+	 * Creates instance of given size played with given tile chains from given
+	 * <code>StringTokenizer</code>. The catalog is not part of the data, it has to be the one
+	 * the board was played with.
+	 *
+	 * @param data
+	 * @param dimension
+	 * @param catalog
+	 * @return
+	 */
+	public static CellCollection deserialize(StringTokenizer data, BoardDimension dimension,
+											 EvolutionCatalog catalog) {
+		CellCollection cellCollection = new CellCollection(dimension, catalog);
+
+		int i = 0;
+		while (data.hasMoreTokens() && i < cellCollection.mCellCount) {
+			cellCollection.putValue(i, Integer.parseInt(data.nextToken()));
+			cellCollection.mNotes[i] = (short) CellNote.deserialize(data.nextToken()).getNotedMask();
+			if (!data.nextToken().equals("1")) {
+				cellCollection.mFlags[i] &= ~FLAG_EDITABLE;
+			}
+			i++;
+		}
+		cellCollection.mNUnlocked = Integer.parseInt(data.nextToken());
+		cellCollection.mCheatMode = Integer.parseInt(data.nextToken());
+		cellCollection.score= Integer.parseInt(data.nextToken());
+		// data written before tile generator was saved goes on with a fresh one
+		if (data.hasMoreTokens()) {
+			cellCollection.rand.setState(Long.parseLong(data.nextToken()));
+		}
+		if (data.hasMoreTokens()) {
+			// saved tiles were drawn already, the generator must not draw them again
+			cellCollection.mLookahead = checkLookahead(Integer.parseInt(data.nextToken()));
+			while (data.hasMoreTokens() && cellCollection.mNextCount < MAX_LOOKAHEAD) {
+				cellCollection.mNext[cellCollection.mNextCount++] = Integer.parseInt(data.nextToken());
+			}
+		}
+		return cellCollection;
+	}
+
+	/**
+	 * Creates instance from given string (string which has been
+	 * created by {@link #serialize(StringBuilder)} or {@link #serialize()} method).
+	 * earlier.
+	 *
+	 * @param note
+	 */
+	public static CellCollection deserialize(String data) {
+		return deserialize(data, EvolutionCatalog.getDefault());
+	}
+
+	/**
+	 * Creates instance played with given tile chains from given string, see
+	 * {@link #deserialize(String)}. The catalog is not part of the data, it has to be the one
+	 * the board was played with. Data in the oldest format always gets the default one.
+	 *
+	 * @param data
+	 * @param catalog
+	 * @return
+	 */
+	public static CellCollection deserialize(String data, EvolutionCatalog catalog) {
+		// TODO: use DATA_PATTERN_VERSION_1 to validate and extract puzzle data
+		String[] lines = data.split("\n");
+		if (lines.length == 0) {
+			throw new IllegalArgumentException("Cannot deserialize Sudoku, data corrupted.");
+		}
+
+		if (lines[0].equals("version: 1")) {
+			StringTokenizer st = new StringTokenizer(lines[1], "|");
+			return deserialize(st, BoardDimension.DEFAULT, catalog);
+		} else if (lines[0].equals("version: 2")) {
+			StringTokenizer st = new StringTokenizer(lines[1], "|");
+			int rows = Integer.parseInt(st.nextToken());
+			int columns = Integer.parseInt(st.nextToken());
+			return deserialize(st, new BoardDimension(rows, columns), catalog);
+		} else {
+			return fromString(data);
+		}
+	}
+
+	/**
+	 * Creates collection instance from given string. String is expected
+	 * to be in format "00002343243202...", where each number represents
+	 * cell value, no other information can be set using this method.
+	 *
+	 * @param data
+	 * @return
+	 */
+	public static CellCollection fromString(String data) {
+		// TODO: validate
+
+		CellCollection cellCollection = new CellCollection(BoardDimension.DEFAULT);
+
+		int pos = 0;
+		for (int i = 0; i < CELL_COUNT; i++) {
+			int value = 0;
+			while (pos < data.length()) {
+				pos++;
+				if (data.charAt(pos - 1) >= '0'
+						&& data.charAt(pos - 1) <= '9') {
+					// value=Integer.parseInt(data.substring(pos-1, pos));
+					value = data.charAt(pos - 1) - '0';
+					break;
+				}
+			}
+			cellCollection.putValue(i, value);
+		}
+		cellCollection.markFilledCellsAsNotEditable();
+
+		return cellCollection;
+	}
+
+	public String serialize() {
+		StringBuilder sb = new StringBuilder();
+		serialize(sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Writes collection to given StringBuilder. You can later recreate the object instance
+	 * by calling {@link #deserialize(String)} method. 9x9 boards are written in
+	 * {@link #DATA_VERSION_1} format, other boards in {@link #DATA_VERSION_2}.
+	 *
+	 * @return
+	 */
+	public void serialize(StringBuilder data) {
+		if (mDimension.equals(BoardDimension.DEFAULT)) {
+			data.append("version: 1\n");
+		} else {
+			data.append("version: 2\n");
+			data.append(mRowCount).append("|").append(mColumnCount).append("|");
+		}
+
+		for (int i = 0; i < mCellCount; i++) {
+			serializeCell(i, data);
+		}
+		data.append(mNUnlocked).append("|");
+		data.append(mCheatMode).append("|");
+		data.append(score).append("|");
+		data.append(rand.getState()).append("|");
+		data.append(mLookahead).append("|");
+		for (int i = 0; i < mNextCount; i++) {
+			data.append(getNext(i)).append("|");
+		}
+	}
+
+	/**
+	 * Appends "value|note|editable|" of given cell to <code>StringBuilder</code>.
+	 */
+	void serializeCell(int index, StringBuilder data) {
+		data.append(mValues[index]).append("|");
+		CellNote.fromMask(mNotes[index]).serialize(data);
+		data.append("|");
+		data.append((mFlags[index] & FLAG_EDITABLE) != 0 ? "1" : "0").append("|");
+	}
+
+	private static Pattern DATA_PATTERN_VERSION_PLAIN = Pattern.compile("^\\d{81}$");
+	// Each cell is value|note|editable|, where note is either a list of "digit," or "-", and
+	// editable is 0 or 1. Cells are followed by unlocked sets, cheat mode, score, state of
+	// the tile generator, lookahead and upcoming tiles; version 1 data written before they
+	// were added lacks them, older data of both versions lacks the generator and the tiles. Comments are kept out of the
+	// patterns, java.util.regex does not support (?#...) comments the way Android's ICU does.
+	private static Pattern DATA_PATTERN_VERSION_1 = Pattern.compile("^version: 1\\n(\\d+\\|((\\d,)+|-)\\|[01]\\|){0,81}((\\d+\\|){3}(-?\\d+\\|(\\d+\\|)*)?)?$");
+	private static Pattern DATA_PATTERN_VERSION_2 = Pattern.compile("^version: 2\\n\\d+\\|\\d+\\|(\\d+\\|((\\d,)+|-)\\|[01]\\|)*(\\d+\\|){3}(-?\\d+\\|(\\d+\\|)*)?$");
+
+	/**
+	 * Returns true, if given <code>data</code> conform to format of given data version.
+	 *
+	 * @param data
+	 * @param dataVersion
+	 * @return
+	 */
+	public static boolean isValid(String data, int dataVersion) {
+		if (dataVersion == DATA_VERSION_PLAIN) {
+			return DATA_PATTERN_VERSION_PLAIN.matcher(data).matches();
+		} else if (dataVersion == DATA_VERSION_1) {
+			return DATA_PATTERN_VERSION_1.matcher(data).matches();
+		} else if (dataVersion == DATA_VERSION_2) {
+			return DATA_PATTERN_VERSION_2.matcher(data).matches();
+		} else {
+			throw new IllegalArgumentException("Unknown version: " + dataVersion);
+		}
+	}
+
+	public void addOnChangeListener(OnChangeListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("The listener is null.");
+		}
+		synchronized (mChangeListeners) {
+			if (mChangeListeners.contains(listener)) {
+				throw new IllegalStateException("Listener " + listener + "is already registered.");
+			}
+			mChangeListeners.add(listener);
+		}
+	}
+
+	public void removeOnChangeListener(OnChangeListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("The listener is null.");
+		}
+		synchronized (mChangeListeners) {
+			if (!mChangeListeners.contains(listener)) {
+				throw new IllegalStateException("Listener " + listener + " was not registered.");
+			}
+			mChangeListeners.remove(listener);
+		}
+	}
+
+	/**
+	 * Returns whether change notification is enabled.
+	 *
+	 * If true, change notifications are distributed to the listeners
+	 * registered by {@link #addOnChangeListener(OnChangeListener)}.
+	 *
+	 * @return
+	 */
+//	public boolean isOnChangeEnabled() {
+//		return mOnChangeEnabled;
+//	}
+//	
+//	/**
+//	 * Enables or disables change notifications, that are distributed to the listeners
+//	 * registered by {@link #addOnChangeListener(OnChangeListener)}.
+//	 * 
+//	 * @param onChangeEnabled
+//	 */
+//	public void setOnChangeEnabled(boolean onChangeEnabled) {
+//		mOnChangeEnabled = onChangeEnabled;
+//	}
+
+	/**
+	 * Notify all registered listeners that something has changed.
+	 */
+	protected void onChange() {
+		if (mOnChangeEnabled) {
+			synchronized (mChangeListeners) {
+				for (OnChangeListener l : mChangeListeners) {
+					l.onChange();
+				}
+			}
+		}
+	}
+
+	public interface OnChangeListener {
+		/**
+		 * Called when anything in the collection changes (cell's value, note, etc.)
+		 */
+		void onChange();
+	}
+}
@@ -0,0 +1,91 @@
+/* 
+ * Copyright (C) 2009 Roman Masek
+ * 
+ * This file is part of OpenSudoku.
+ * 
+ * OpenSudoku is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * OpenSudoku is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with OpenSudoku.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+
+package org.moire.opensudoku.game;
+
+
+/**
+ * Represents group of cells which must each contain unique number.
+ * <p/>
+ * Typical examples of instances are sudoku row, column or sector (3x3 group of cells).
+ * Group only holds indices of its cells, values are read from owning {@link CellCollection}.
+ *
+ * @author romario
+ */
+public class CellGroup {
+	private final CellCollection mCellCollection;
+	private final int[] mIndices;
+	private int mPos = 0;
+
+	/**
+	 * @param cellCollection Collection holding values of the cells.
+	 * @param size           Number of cells in the group.
+	 */
+	CellGroup(CellCollection cellCollection, int size) {
+		mCellCollection = cellCollection;
+		mIndices = new int[size];
+	}
+
+	void addCell(int index) {
+		mIndices[mPos] = index;
+		mPos++;
+	}
+
+
+	int getIndex(int i) {
+		return mIndices[i];
+	}
+
+	/**
+	 * Returns number of cells in the group.
+	 */
+	int size() {
+		return mPos;
+	}
+
+
+	/**
+	 * Validates numbers in given sudoku group - numbers must be unique. Marking of invalid
+	 * cells is left to {@link CellCollection#validate}, because same cell can be invalid
+	 * as part of another group.
+	 *
+	 * @return Mask of values present more than once (bit n set for value n), 0 if group is valid.
+	 */
+	long findDuplicates() {
+		// values are at most EvolutionCatalog.MAX_VALUE, so one bit per value is enough
+		long seen = 0;
+		long duplicates = 0;
+		for (int i = 0; i < mIndices.length; i++) {
+			long bit = 1L << mCellCollection.getValue(mIndices[i]);
+			duplicates |= seen & bit;
+			seen |= bit;
+		}
+		return duplicates;
+	}
+
+	public boolean contains(int value) {
+		for (int i = 0; i < mIndices.length; i++) {
+			if (mCellCollection.getValue(mIndices[i]) == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
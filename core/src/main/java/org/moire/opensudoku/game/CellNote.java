@@ -20,28 +20,46 @@
 
 package org.moire.opensudoku.game;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.StringTokenizer;
 
 /**
  * Note attached to cell. This object is immutable by design.
+ * <p/>
+ * Noted numbers are kept as 9-bit mask (bit n - 1 is set when number n is noted). All 512
+ * possible notes are created up front, so editing a note never allocates - see {@link #fromMask(int)}.
  *
  * @author romario
  */
 public class CellNote {
-	// TODO: int would be better
-	private final Set<Integer> mNotedNumbers;
+	private static final int NUMBER_COUNT = 9;
+	private static final int ALL_NUMBERS = (1 << NUMBER_COUNT) - 1;
 
-	public static final CellNote EMPTY = new CellNote();
+	private static final CellNote[] sNotes = new CellNote[ALL_NUMBERS + 1];
 
-	public CellNote() {
-		mNotedNumbers = Collections.unmodifiableSet(new HashSet<Integer>());
+	static {
+		for (int mask = 0; mask <= ALL_NUMBERS; mask++) {
+			sNotes[mask] = new CellNote((short) mask);
+		}
 	}
 
-	private CellNote(Set<Integer> notedNumbers) {
-		mNotedNumbers = Collections.unmodifiableSet(notedNumbers);
+	public static final CellNote EMPTY = sNotes[0];
+
+	private final short mNotedNumbers;
+
+	private CellNote(short notedNumbers) {
+		mNotedNumbers = notedNumbers;
+	}
+
+	/**
+	 * Returns note instance for given mask of noted numbers.
+	 *
+	 * @param mask Bit n - 1 is set for each noted number n.
+	 * @return Shared note instance.
+	 */
+	public static CellNote fromMask(int mask) {
+		return sNotes[mask & ALL_NUMBERS];
 	}
 
 	/**
@@ -52,39 +70,35 @@ public class CellNote {
 	 * @param note
 	 */
 	public static CellNote deserialize(String note) {
-		// TODO: optimalization: CellNote object don't have to be created for empty note
-
-		Set<Integer> notedNumbers = new HashSet<Integer>();
-		if (note != null && !note.equals("")) {
+		int mask = 0;
+		if (note != null && !note.equals("") && !note.equals("-")) {
 			StringTokenizer tokenizer = new StringTokenizer(note, ",");
 			while (tokenizer.hasMoreTokens()) {
 				String value = tokenizer.nextToken();
 				if (!value.equals("-")) {
-					notedNumbers.add(Integer.parseInt(value));
+					mask |= bitFor(Integer.parseInt(value));
 				}
 			}
 		}
 
-		return new CellNote(notedNumbers);
+		return sNotes[mask];
 	}
 
 
-	// TODO: this should be int[]
-
 	/**
 	 * Creates note instance from given <code>Integer</code> array.
 	 *
 	 * @param notedNums Array of integers, which should be part of note.
-	 * @return New note instance.
+	 * @return Note instance.
 	 */
 	public static CellNote fromIntArray(Integer[] notedNums) {
-		Set<Integer> notedNumbers = new HashSet<Integer>();
+		int mask = 0;
 
 		for (Integer n : notedNums) {
-			notedNumbers.add(n);
+			mask |= bitFor(n);
 		}
 
-		return new CellNote(notedNumbers);
+		return sNotes[mask];
 	}
 
 
@@ -95,11 +109,13 @@ public class CellNote {
 	 * @param data
 	 */
 	public void serialize(StringBuilder data) {
-		if (mNotedNumbers.size() == 0) {
+		if (mNotedNumbers == 0) {
 			data.append("-");
 		} else {
-			for (Integer num : mNotedNumbers) {
-				data.append(num).append(",");
+			for (int number = 1; number <= NUMBER_COUNT; number++) {
+				if ((mNotedNumbers & bitFor(number)) != 0) {
+					data.append(number).append(",");
+				}
 			}
 		}
 	}
@@ -111,30 +127,48 @@ public class CellNote {
 	}
 
 	/**
-	 * Returns numbers currently noted in cell.
+	 * Returns numbers currently noted in cell. Creates new set on each call, prefer
+	 * {@link #getNotedMask()} or {@link #hasNumber(int)} where possible.
 	 *
 	 * @return
 	 */
 	public Set<Integer> getNotedNumbers() {
+		Set<Integer> notedNumbers = new HashSet<Integer>();
+		for (int number = 1; number <= NUMBER_COUNT; number++) {
+			if (hasNumber(number)) {
+				notedNumbers.add(number);
+			}
+		}
+		return notedNumbers;
+	}
+
+	/**
+	 * Returns mask of numbers currently noted in cell, bit n - 1 is set for each noted number n.
+	 *
+	 * @return
+	 */
+	public int getNotedMask() {
 		return mNotedNumbers;
 	}
 
+	/**
+	 * Returns true, if given number is noted.
+	 *
+	 * @param number
+	 * @return
+	 */
+	public boolean hasNumber(int number) {
+		return (mNotedNumbers & bitFor(number)) != 0;
+	}
+
 	/**
 	 * Toggles noted number: if number is already noted, it will be removed otherwise it will be added.
 	 *
 	 * @param number Number to toggle.
-	 * @return New CellNote instance with changes.
+	 * @return CellNote instance with changes.
 	 */
 	public CellNote toggleNumber(int number) {
-
-		Set<Integer> notedNumbers = new HashSet<Integer>(getNotedNumbers());
-		if (notedNumbers.contains(number)) {
-			notedNumbers.remove(number);
-		} else {
-			notedNumbers.add(number);
-		}
-
-		return new CellNote(notedNumbers);
+		return sNotes[mNotedNumbers ^ bitFor(number)];
 	}
 
 	/**
@@ -144,13 +178,7 @@ public class CellNote {
 	 * @return
 	 */
 	public CellNote addNumber(int number) {
-		if (number < 1 || number > 9)
-			throw new IllegalArgumentException("Number must be between 1-9.");
-
-		Set<Integer> notedNumbers = new HashSet<Integer>(getNotedNumbers());
-		notedNumbers.add(number);
-
-		return new CellNote(notedNumbers);
+		return sNotes[mNotedNumbers | bitFor(number)];
 	}
 
 	/**
@@ -160,15 +188,11 @@ public class CellNote {
 	 * @return
 	 */
 	public CellNote removeNumber(int number) {
-
-		Set<Integer> notedNumbers = new HashSet<Integer>(getNotedNumbers());
-		notedNumbers.remove(number);
-
-		return new CellNote(notedNumbers);
+		return sNotes[mNotedNumbers & ~bitFor(number)];
 	}
 
 	public CellNote clear() {
-		return new CellNote();
+		return EMPTY;
 	}
 
 	/**
@@ -177,7 +201,14 @@ public class CellNote {
 	 * @return True if note is empty.
 	 */
 	public boolean isEmpty() {
-		return mNotedNumbers.size() == 0;
+		return mNotedNumbers == 0;
+	}
+
+	private static int bitFor(int number) {
+		if (number < 1 || number > NUMBER_COUNT)
+			throw new IllegalArgumentException("Number must be between 1-9.");
+
+		return 1 << (number - 1);
 	}
 
 }
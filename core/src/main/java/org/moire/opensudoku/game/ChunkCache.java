@@ -0,0 +1,85 @@
+package org.moire.opensudoku.game;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory LRU of {@link World} chunks. Holds at most given number of chunks; when more are
+ * added, the least recently used one is dropped, after being handed to the {@link ChunkLoader}
+ * if it was changed since it was loaded.
+ */
+class ChunkCache {
+	private final int mCapacity;
+	private final ChunkLoader mLoader;
+	private final Set<Long> mDirty = new HashSet<Long>();
+	private final LinkedHashMap<Long, byte[]> mChunks;
+
+	ChunkCache(int capacity, ChunkLoader loader) {
+		mCapacity = capacity;
+		mLoader = loader;
+		mChunks = new LinkedHashMap<Long, byte[]>(capacity + 1, 1f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+				if (size() <= mCapacity) {
+					return false;
+				}
+				if (mDirty.remove(eldest.getKey())) {
+					mLoader.save(eldest.getKey(), eldest.getValue());
+				}
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Returns values of given chunk, null if it is not cached.
+	 */
+	byte[] get(long key) {
+		return mChunks.get(key);
+	}
+
+	/**
+	 * Returns true if given chunk is cached and has to be saved.
+	 */
+	boolean isDirty(long key) {
+		return mDirty.contains(key);
+	}
+
+	/**
+	 * Adds chunk to the cache.
+	 *
+	 * @param dirty Whether values differ from the stored ones and have to be saved on eviction.
+	 */
+	void put(long key, byte[] values, boolean dirty) {
+		if (dirty) {
+			mDirty.add(key);
+		}
+		mChunks.put(key, values);
+	}
+
+	/**
+	 * Removes chunk from the cache without saving it.
+	 *
+	 * @return Values of the chunk, null if it was not cached.
+	 */
+	byte[] remove(long key) {
+		mDirty.remove(key);
+		return mChunks.remove(key);
+	}
+
+	/**
+	 * Saves all changed chunks, they stay cached.
+	 */
+	void flush() {
+		for (Long key : mDirty) {
+			mLoader.save(key, mChunks.get(key).clone());
+		}
+		mDirty.clear();
+	}
+
+	int size() {
+		return mChunks.size();
+	}
+}
@@ -0,0 +1,42 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Persistent storage of {@link World} chunks. Implementations are expected to do the actual
+ * work off the GUI thread and to execute loads and saves in the order they were requested,
+ * so that a load always sees the last save of the same chunk.
+ */
+public interface ChunkLoader {
+
+	/**
+	 * Loads cell values of given chunk.
+	 *
+	 * @param key      Chunk key, see {@link World#chunkKey(int, int)}.
+	 * @param callback Receives the values on the thread which owns the world.
+	 */
+	void load(long key, Callback callback);
+
+	/**
+	 * Stores cell values of given chunk. The loader takes ownership of the array.
+	 *
+	 * @param key    Chunk key, see {@link World#chunkKey(int, int)}.
+	 * @param values One byte per cell, in cell index order.
+	 */
+	void save(long key, byte[] values);
+
+	interface Callback {
+		/**
+		 * @param key        Key of the loaded chunk.
+		 * @param values     Cell values, null if the chunk has never been saved.
+		 * @param worldEmpty True if no chunk at all has been saved yet.
+		 */
+		void onChunkLoaded(long key, byte[] values, boolean worldEmpty);
+
+		/**
+		 * Occurs instead of {@link #onChunkLoaded(long, byte[], boolean)} when given chunk
+		 * could not be read, it may still be stored.
+		 *
+		 * @param key Key of the chunk.
+		 */
+		void onChunkLoadFailed(long key);
+	}
+}
@@ -0,0 +1,25 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Source of time for measuring how long the game has been played.
+ */
+public interface Clock {
+
+	/**
+	 * Monotonic clock, which does not run while the device sleeps. On Android it reads the same
+	 * clock as SystemClock.uptimeMillis().
+	 */
+	Clock SYSTEM = new Clock() {
+		@Override
+		public long uptimeMillis() {
+			return System.nanoTime() / 1000000;
+		}
+	};
+
+	/**
+	 * Returns milliseconds elapsed since some fixed point in the past.
+	 *
+	 * @return
+	 */
+	long uptimeMillis();
+}
@@ -0,0 +1,234 @@
+package org.moire.opensudoku.game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chains of tiles the game is played with, see {@link #parse(Reader)} for the format. Tile
+ * values are numbered from 1 through all chains in order, 0 is an empty cell. The catalog is
+ * compiled into flat tables indexed by tile value, so resolving a match only reads arrays.
+ * <p/>
+ * Instances are immutable and can be shared by any number of boards.
+ */
+public final class EvolutionCatalog {
+	/**
+	 * Catalog the game ships with, a resource next to this class.
+	 */
+	public static final String DEFAULT_RESOURCE = "evolution.txt";
+
+	/**
+	 * Highest tile value a catalog may have. Groups keep one bit per value in a long, see
+	 * {@link CellGroup#findDuplicates()}.
+	 */
+	public static final int MAX_VALUE = 63;
+
+	private final String[] mNames;
+	private final int[] mChainStarts;
+	// indexed by tile value
+	private final String[] mEmojis;
+	final int[] mNextTiers;
+	final int[] mScores;
+	final int[] mUnlocks;
+
+	private static class DefaultHolder {
+		static final EvolutionCatalog INSTANCE = loadDefault();
+	}
+
+	private EvolutionCatalog(List<String> names, List<Integer> chainStarts, List<String> emojis,
+							 List<Integer> scores, List<String> triggers) {
+		int chains = names.size();
+		int values = emojis.size();
+		mNames = names.toArray(new String[chains]);
+		mChainStarts = new int[chains];
+		mEmojis = emojis.toArray(new String[values]);
+		mNextTiers = new int[values];
+		mScores = new int[values];
+		mUnlocks = new int[values];
+
+		Map<String, Integer> valueOf = new HashMap<String, Integer>();
+		for (int value = 1; value < values; value++) {
+			if (valueOf.put(mEmojis[value], value) != null) {
+				throw new IllegalArgumentException("Tile " + mEmojis[value] + " is in the catalog twice.");
+			}
+			mScores[value] = scores.get(value);
+		}
+		for (int chain = 0; chain < chains; chain++) {
+			int start = chainStarts.get(chain);
+			int end = chain + 1 < chains ? chainStarts.get(chain + 1) : values;
+			mChainStarts[chain] = start;
+			// the last tier vanishes, its next tier stays 0
+			for (int value = start; value < end - 1; value++) {
+				mNextTiers[value] = value + 1;
+			}
+
+			String trigger = triggers.get(chain);
+			if (chain == 0) {
+				if (trigger.length() > 0) {
+					throw new IllegalArgumentException("First chain is always unlocked.");
+				}
+				continue;
+			}
+			// unlocked by forming the last tier of the chain before by default
+			Integer value = trigger.length() == 0 ? Integer.valueOf(start - 1) : valueOf.get(trigger);
+			if (value == null || value >= start) {
+				throw new IllegalArgumentException("Chain " + mNames[chain]
+						+ " must be unlocked by a tile of the chains before it.");
+			}
+			if (mUnlocks[value] != 0) {
+				throw new IllegalArgumentException("Tile " + trigger + " unlocks two chains.");
+			}
+			mUnlocks[value] = chain;
+		}
+	}
+
+	/**
+	 * Returns catalog loaded from {@link #DEFAULT_RESOURCE}, loading it on first use.
+	 *
+	 * @return
+	 */
+	public static EvolutionCatalog getDefault() {
+		return DefaultHolder.INSTANCE;
+	}
+
+	private static EvolutionCatalog loadDefault() {
+		InputStream in = EvolutionCatalog.class.getResourceAsStream(DEFAULT_RESOURCE);
+		if (in == null) {
+			throw new IllegalStateException("Resource " + DEFAULT_RESOURCE + " is missing.");
+		}
+		try {
+			try {
+				return parse(new InputStreamReader(in, "UTF-8"));
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read " + DEFAULT_RESOURCE + ".", e);
+		}
+	}
+
+	/**
+	 * Reads catalog from given text. Each line which is neither empty nor a comment (starting
+	 * with #) describes one chain, chains are unlocked in the order they are listed:
+	 * <pre>
+	 * name | unlocked by | tile score | tile score | ...
+	 * </pre>
+	 * A chain has at least one tile, each evolving into the next one when matched; the last
+	 * one vanishes. Score is gained for every tile cleared by a match. Chain is unlocked
+	 * by forming the given tile of an earlier chain, or the last tile of the chain before it
+	 * when left empty. The field must be empty for the first chain, which is always unlocked.
+	 *
+	 * @param in Text of the catalog, it is not closed.
+	 * @return
+	 * @throws IOException
+	 * @throws IllegalArgumentException if the text does not describe a valid catalog.
+	 */
+	public static EvolutionCatalog parse(Reader in) throws IOException {
+		List<String> names = new ArrayList<String>();
+		List<Integer> chainStarts = new ArrayList<Integer>();
+		List<String> emojis = new ArrayList<String>();
+		List<Integer> scores = new ArrayList<Integer>();
+		List<String> triggers = new ArrayList<String>();
+		emojis.add(""); // empty cell
+		scores.add(0);
+
+		BufferedReader reader = new BufferedReader(in);
+		String line;
+		int lineNumber = 0;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#")) {
+				continue;
+			}
+			String[] fields = line.split("\\|", -1);
+			if (fields.length < 3) {
+				throw new IllegalArgumentException("Line " + lineNumber + ": chain needs a name, "
+						+ "unlock tile and at least one tile.");
+			}
+			names.add(fields[0].trim());
+			triggers.add(fields[1].trim());
+			chainStarts.add(emojis.size());
+			for (int i = 2; i < fields.length; i++) {
+				String[] tile = fields[i].trim().split("\\s+");
+				if (tile.length != 2) {
+					throw new IllegalArgumentException("Line " + lineNumber + ": tile must be "
+							+ "followed by its score.");
+				}
+				int score;
+				try {
+					score = Integer.parseInt(tile[1]);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Line " + lineNumber + ": bad score "
+							+ tile[1] + ".");
+				}
+				emojis.add(tile[0]);
+				scores.add(score);
+			}
+			if (emojis.size() - 1 > MAX_VALUE) {
+				throw new IllegalArgumentException("Line " + lineNumber + ": at most " + MAX_VALUE
+						+ " tiles are supported.");
+			}
+		}
+		if (names.isEmpty()) {
+			throw new IllegalArgumentException("Catalog has no chains.");
+		}
+		return new EvolutionCatalog(names, chainStarts, emojis, scores, triggers);
+	}
+
+	/**
+	 * Returns number of tile values including 0 for an empty cell.
+	 */
+	public int getValueCount() {
+		return mEmojis.length;
+	}
+
+	public int getChainCount() {
+		return mNames.length;
+	}
+
+	public String getChainName(int chain) {
+		return mNames[chain];
+	}
+
+	/**
+	 * Returns first tile of given chain, the one which spawns.
+	 */
+	public int getChainStart(int chain) {
+		return mChainStarts[chain];
+	}
+
+	/**
+	 * Returns emoji of given tile, empty string for 0.
+	 */
+	public String getEmoji(int value) {
+		return mEmojis[value];
+	}
+
+	/**
+	 * Returns tile given tile evolves into when matched, 0 if it vanishes.
+	 */
+	public int getNextTier(int value) {
+		return mNextTiers[value];
+	}
+
+	/**
+	 * Returns score gained for clearing given tile.
+	 */
+	public int getScore(int value) {
+		return mScores[value];
+	}
+
+	/**
+	 * Returns chain unlocked by forming given tile, 0 if none (the first chain needs no unlocking).
+	 */
+	public int getUnlockedChain(int value) {
+		return mUnlocks[value];
+	}
+}
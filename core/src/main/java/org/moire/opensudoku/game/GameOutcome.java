@@ -0,0 +1,38 @@
+package org.moire.opensudoku.game;
+
+/**
+ * State of the board with respect to the next tile to be placed.
+ */
+public enum GameOutcome {
+	/**
+	 * There are empty cells, but the next tile does not match wherever it is placed.
+	 */
+	OPEN,
+	/**
+	 * Placing the next tile on some empty cell produces a match and starts a cascade.
+	 */
+	CASCADE_AVAILABLE,
+	/**
+	 * No empty cell remains, the game is over.
+	 */
+	BOARD_FULL;
+
+	/**
+	 * Evaluates given board. No placement is tried, the cost is that of
+	 * {@link MatchRule#canMatch(CellCollection, int)}: a few word operations per row and per
+	 * column, however many cells are empty.
+	 *
+	 * @param cells     Board to evaluate.
+	 * @param nextValue Value of the tile to be placed next, 0 if unknown.
+	 * @return
+	 */
+	public static GameOutcome evaluate(CellCollection cells, int nextValue) {
+		if (cells.getFilledCount() == cells.getCellCount()) {
+			return BOARD_FULL;
+		}
+		if (nextValue != 0 && cells.getMatchRule().canMatch(cells, nextValue)) {
+			return CASCADE_AVAILABLE;
+		}
+		return OPEN;
+	}
+}
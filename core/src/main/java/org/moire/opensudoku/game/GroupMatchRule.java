@@ -0,0 +1,71 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Matches any 4-connected cluster of at least {@link #MIN_SIZE} equal tiles, whatever its shape.
+ * Cluster sizes and members come from {@link TileClusters}, so no flood fill is needed.
+ */
+class GroupMatchRule implements MatchRule {
+	static final int MIN_SIZE = 3;
+
+	@Override
+	public int findMatch(CellCollection cells, int index, int[] matched) {
+		TileClusters clusters = cells.getClusters();
+		if (clusters.size(index) < MIN_SIZE) {
+			return 0;
+		}
+		return clusters.collect(index, matched);
+	}
+
+	/**
+	 * With {@link #MIN_SIZE} of 3 a placed tile completes a cluster when it touches two tiles
+	 * of the value, or one tile which already has a neighbour of the value. Vertical neighbours
+	 * are the words of the rows above and below, so only the row words are visited.
+	 */
+	@Override
+	public boolean canMatch(CellCollection cells, int value) {
+		TileBoards boards = cells.getBoards();
+		int words = boards.getRowWords();
+		for (int row = 0; row < cells.getRowCount(); row++) {
+			for (int w = 0; w < words; w++) {
+				long free = boards.rowWord(0, row, w);
+				if (free == 0) {
+					continue;
+				}
+
+				long line = boards.rowWord(value, row, w);
+				long left = TileBoards.shiftUp(line, boards.rowWord(value, row, w - 1), 1) & free;
+				long right = TileBoards.shiftDown(line, boards.rowWord(value, row, w + 1), 1) & free;
+				long above = boards.rowWord(value, row - 1, w) & free;
+				long below = boards.rowWord(value, row + 1, w) & free;
+				if (((left & right) | ((left | right) & (above | below)) | (above & below)) != 0) {
+					return true;
+				}
+
+				// next to a tile of the value which already has a neighbour of the value
+				long paired = paired(boards, value, row, w);
+				long touching = TileBoards.shiftUp(paired, paired(boards, value, row, w - 1), 1)
+						| TileBoards.shiftDown(paired, paired(boards, value, row, w + 1), 1)
+						| paired(boards, value, row - 1, w) | paired(boards, value, row + 1, w);
+				if ((touching & free) != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns tiles of the value in given word of a row which have a 4-neighbour of the same value.
+	 */
+	private static long paired(TileBoards boards, int value, int row, int word) {
+		long line = boards.rowWord(value, row, word);
+		if (line == 0) {
+			return 0;
+		}
+		long neighbours = TileBoards.shiftUp(line, boards.rowWord(value, row, word - 1), 1)
+				| TileBoards.shiftDown(line, boards.rowWord(value, row, word + 1), 1)
+				| boards.rowWord(value, row - 1, word)
+				| boards.rowWord(value, row + 1, word);
+		return line & neighbours;
+	}
+}
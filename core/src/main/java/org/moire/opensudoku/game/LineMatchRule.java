@@ -0,0 +1,85 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Matches runs of at least {@link #MIN_LENGTH} equal tiles in the row or column of the tile.
+ * When both the row and the column match, tiles of both runs are consumed.
+ */
+class LineMatchRule implements MatchRule {
+	static final int MIN_LENGTH = 3;
+
+	@Override
+	public int findMatch(CellCollection cells, int index, int[] matched) {
+		int columns = cells.getColumnCount();
+		int row = index / columns;
+		int column = index % columns;
+		int value = cells.getValue(index);
+
+		int count = 0;
+		int rowLength = cells.getRunLengthH(row, column);
+		boolean rowMatched = rowLength >= MIN_LENGTH;
+		if (rowMatched) {
+			int first = index;
+			for (int c = column; c > 0 && cells.getValue(first - 1) == value; c--) {
+				first--;
+			}
+			for (int i = 0; i < rowLength; i++) {
+				matched[count++] = first + i;
+			}
+		}
+		int columnLength = cells.getRunLengthV(row, column);
+		if (columnLength >= MIN_LENGTH) {
+			int first = index;
+			for (int r = row; r > 0 && cells.getValue(first - columns) == value; r--) {
+				first -= columns;
+			}
+			for (int i = 0; i < columnLength; i++) {
+				// the tile itself is already listed when its row matched
+				int cell = first + i * columns;
+				if (cell != index || !rowMatched) {
+					matched[count++] = cell;
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public boolean canMatch(CellCollection cells, int value) {
+		TileBoards boards = cells.getBoards();
+		int words = boards.getRowWords();
+		for (int row = 0; row < cells.getRowCount(); row++) {
+			for (int w = 0; w < words; w++) {
+				if (completions(boards.rowWord(value, row, w - 1), boards.rowWord(value, row, w),
+						boards.rowWord(value, row, w + 1), boards.rowWord(0, row, w)) != 0) {
+					return true;
+				}
+			}
+		}
+		words = boards.getColumnWords();
+		for (int column = 0; column < cells.getColumnCount(); column++) {
+			for (int w = 0; w < words; w++) {
+				if (completions(boards.columnWord(value, column, w - 1), boards.columnWord(value, column, w),
+						boards.columnWord(value, column, w + 1), boards.columnWord(0, column, w)) != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns positions in <code>free</code> where one more tile would make a run of
+	 * {@link #MIN_LENGTH} in the line: both neighbours, or two tiles on one side.
+	 *
+	 * @param lower  Preceding word of the line.
+	 * @param line   Word of the line to examine.
+	 * @param higher Following word of the line.
+	 * @param free   Empty cells in the examined word.
+	 */
+	static long completions(long lower, long line, long higher, long free) {
+		long left = TileBoards.shiftUp(line, lower, 1);
+		long right = TileBoards.shiftDown(line, higher, 1);
+		return ((left & TileBoards.shiftUp(line, lower, 2)) | (left & right)
+				| (right & TileBoards.shiftDown(line, higher, 2))) & free;
+	}
+}
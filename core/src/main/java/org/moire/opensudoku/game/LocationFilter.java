@@ -0,0 +1,163 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Turns noisy location fixes into the world cell the user stands in. Position is smoothed by
+ * a Kalman filter on each axis, weighing every fix by its reported accuracy and by the time
+ * passed since the previous one. Once in a cell, the user has to get {@link #getHysteresis()}
+ * past its border before another cell is reported, so the selection does not flicker while
+ * standing close to a border.
+ * <p/>
+ * Not thread safe, feed it from one thread.
+ */
+public class LocationFilter {
+
+	/**
+	 * Accuracy assumed when fix does not report one, in meters.
+	 */
+	public static final float DEFAULT_ACCURACY_M = 10;
+
+	/**
+	 * Hysteresis used by the game, in meters: about twice the jitter left after filtering fixes
+	 * of usual 5 m accuracy.
+	 */
+	public static final double DEFAULT_HYSTERESIS_M = 3;
+
+	// How fast the position may drift between fixes: variance growth of walking speed,
+	// in m^2/s.
+	private static final double PROCESS_NOISE_M2_S = 2.25;
+	// Weight of the newest fix in the speed average.
+	private static final double SPEED_WEIGHT = 0.5;
+
+	private final double mHysteresis;
+	private final double mProcessNoise;
+
+	private boolean mHasFix = false;
+	private long mTime;
+	// filtered position and its variance, in cells
+	private double mX;
+	private double mY;
+	private double mVariance;
+	// average speed, in m/s
+	private double mSpeed;
+
+	private int mCellX;
+	private int mCellY;
+
+	/**
+	 * @param hysteresisM How far past the border of the current cell the user has to get to
+	 *                    enter the next one, in meters.
+	 */
+	public LocationFilter(double hysteresisM) {
+		mHysteresis = hysteresisM / World.CELL_WIDTH_M;
+		mProcessNoise = PROCESS_NOISE_M2_S / (World.CELL_WIDTH_M * World.CELL_WIDTH_M);
+	}
+
+	/**
+	 * Adds location fix.
+	 *
+	 * @param lat       Latitude in degrees.
+	 * @param lon       Longitude in degrees.
+	 * @param accuracyM Accuracy of the fix in meters, 0 if unknown.
+	 * @param time      Time of the fix in milliseconds.
+	 * @return True if the user has entered another cell.
+	 */
+	public boolean update(double lat, double lon, float accuracyM, long time) {
+		double x = World.toCellX(lon);
+		double y = World.toCellY(lat);
+		double accuracy = (accuracyM > 0 ? accuracyM : DEFAULT_ACCURACY_M) / World.CELL_WIDTH_M;
+		double noise = accuracy * accuracy;
+
+		if (!mHasFix) {
+			mHasFix = true;
+			mTime = time;
+			mX = x;
+			mY = y;
+			mVariance = noise;
+			mCellX = (int) Math.floor(x);
+			mCellY = (int) Math.floor(y);
+			return true;
+		}
+
+		// the longer since the last fix, the less the filtered position is to be trusted
+		double elapsed = Math.max(0, time - mTime) / 1000.0;
+		mTime = time;
+		mVariance += mProcessNoise * elapsed;
+		double gain = mVariance / (mVariance + noise);
+		double dx = gain * (x - mX);
+		double dy = gain * (y - mY);
+		mX += dx;
+		mY += dy;
+		mVariance *= 1 - gain;
+		if (elapsed > 0) {
+			double speed = Math.sqrt(dx * dx + dy * dy) * World.CELL_WIDTH_M / elapsed;
+			mSpeed += SPEED_WEIGHT * (speed - mSpeed);
+		}
+
+		int cellX = leave(mCellX, mX);
+		int cellY = leave(mCellY, mY);
+		if (cellX == mCellX && cellY == mCellY) {
+			return false;
+		}
+		mCellX = cellX;
+		mCellY = cellY;
+		return true;
+	}
+
+	/**
+	 * Returns cell the position lies in along one axis, or the current one if the position is
+	 * not far enough past its borders.
+	 */
+	private int leave(int cell, double position) {
+		if (position < cell - mHysteresis || position >= cell + 1 + mHysteresis) {
+			return (int) Math.floor(position);
+		}
+		return cell;
+	}
+
+	/**
+	 * Returns true once there has been a fix.
+	 *
+	 * @return
+	 */
+	public boolean hasFix() {
+		return mHasFix;
+	}
+
+	/**
+	 * Returns average speed of the filtered position, in m/s.
+	 *
+	 * @return
+	 */
+	public double getSpeed() {
+		return mSpeed;
+	}
+
+	/**
+	 * Returns how far the filtered position has to move to enter another cell, in meters.
+	 * That is the distance to the nearest border of the current cell, plus the hysteresis.
+	 *
+	 * @return
+	 */
+	public double getEdgeDistance() {
+		double x = Math.min(mX - (mCellX - mHysteresis), mCellX + 1 + mHysteresis - mX);
+		double y = Math.min(mY - (mCellY - mHysteresis), mCellY + 1 + mHysteresis - mY);
+		return Math.max(0, Math.min(x, y)) * World.CELL_WIDTH_M;
+	}
+
+	public int getCellX() {
+		return mCellX;
+	}
+
+	public int getCellY() {
+		return mCellY;
+	}
+
+	/**
+	 * Returns how far past a cell border the user has to get to enter the next cell, in cells.
+	 *
+	 * @return
+	 */
+	public double getHysteresis() {
+		return mHysteresis;
+	}
+}
@@ -0,0 +1,93 @@
+package org.moire.opensudoku.game;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link StateBundle} kept in memory.
+ */
+public class MapStateBundle implements StateBundle {
+	private final Map<String, Object> mValues = new HashMap<String, Object>();
+
+	@Override
+	public void putBoolean(String key, boolean value) {
+		mValues.put(key, value);
+	}
+
+	@Override
+	public boolean getBoolean(String key) {
+		Object value = mValues.get(key);
+		return value instanceof Boolean && (Boolean) value;
+	}
+
+	@Override
+	public void putInt(String key, int value) {
+		mValues.put(key, value);
+	}
+
+	@Override
+	public int getInt(String key) {
+		Object value = mValues.get(key);
+		return value instanceof Integer ? (Integer) value : 0;
+	}
+
+	@Override
+	public void putLong(String key, long value) {
+		mValues.put(key, value);
+	}
+
+	@Override
+	public long getLong(String key) {
+		Object value = mValues.get(key);
+		return value instanceof Long ? (Long) value : 0;
+	}
+
+	@Override
+	public void putString(String key, String value) {
+		mValues.put(key, value);
+	}
+
+	@Override
+	public String getString(String key) {
+		Object value = mValues.get(key);
+		return value instanceof String ? (String) value : null;
+	}
+
+	@Override
+	public void putIntArray(String key, int[] value) {
+		mValues.put(key, value);
+	}
+
+	@Override
+	public int[] getIntArray(String key) {
+		Object value = mValues.get(key);
+		return value instanceof int[] ? (int[]) value : null;
+	}
+
+	@Override
+	public void putStringArray(String key, String[] value) {
+		mValues.put(key, value);
+	}
+
+	@Override
+	public String[] getStringArray(String key) {
+		Object value = mValues.get(key);
+		return value instanceof String[] ? (String[]) value : null;
+	}
+
+	@Override
+	public void putBundle(String key, StateBundle value) {
+		mValues.put(key, value);
+	}
+
+	@Override
+	public StateBundle getBundle(String key) {
+		Object value = mValues.get(key);
+		return value instanceof StateBundle ? (StateBundle) value : null;
+	}
+
+	@Override
+	public StateBundle newBundle() {
+		return new MapStateBundle();
+	}
+}
@@ -0,0 +1,49 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Rule deciding which tiles are consumed when a tile is placed on the board or evolves.
+ * <p/>
+ * Rules are expected to be symmetric: if the tile at index A matches together with the
+ * tile at index B, evaluating B finds the same match. {@link CellCollection} relies on this
+ * and re-evaluates only cells whose value changed while resolving a cascade.
+ */
+public interface MatchRule {
+
+	/**
+	 * Runs of three or more equal tiles in the row or column of the tile.
+	 */
+	MatchRule LINES = new LineMatchRule();
+
+	/**
+	 * Same as {@link #LINES}, plus L and T shapes of five equal tiles containing the tile.
+	 */
+	MatchRule SHAPES = new ShapeMatchRule();
+
+	/**
+	 * Any 4-connected cluster of three or more equal tiles containing the tile.
+	 */
+	MatchRule GROUPS = new GroupMatchRule();
+
+	/**
+	 * Finds tiles matched together with the tile at given index. Must not allocate.
+	 *
+	 * @param cells   Board to examine.
+	 * @param index   Index of the placed or evolved tile, the cell is not empty.
+	 * @param matched Receives indices of matched tiles (each at most once, including
+	 *                <code>index</code>), has room for {@link CellCollection#getCellCount()} entries.
+	 * @return Number of matched tiles, 0 if there is no match.
+	 */
+	int findMatch(CellCollection cells, int index, int[] matched);
+
+	/**
+	 * Tells whether placing a tile of given value on some empty cell would produce a match.
+	 * Answered from the bitboards kept by {@link CellCollection}, without trying the
+	 * placements: the cost grows with the number of rows and columns (at most one pass over
+	 * the 64-cell words of each line), not with the number of empty cells.
+	 *
+	 * @param cells Board to examine.
+	 * @param value Value of the tile to place, not 0.
+	 * @return
+	 */
+	boolean canMatch(CellCollection cells, int value);
+}
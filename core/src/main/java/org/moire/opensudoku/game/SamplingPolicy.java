@@ -0,0 +1,79 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Decides how often location fixes are needed. The closer the user is to entering another cell,
+ * and the faster they move, the more often fixes are requested; standing still or in the middle
+ * of a cell lets GPS rest.
+ * <p/>
+ * Intervals are kept to a few steps, each twice the previous one, so that the location request
+ * only has to be renewed when the need changes notably.
+ */
+public class SamplingPolicy {
+
+	public static final long MIN_INTERVAL_MS = 200;
+	public static final long MAX_INTERVAL_MS = 12800;
+	public static final float MIN_DISTANCE_M = 1;
+	public static final float MAX_DISTANCE_M = 8;
+
+	// below this speed the user is taken as standing, in m/s
+	private static final double STATIONARY_SPEED = 0.3;
+
+	private long mInterval = MIN_INTERVAL_MS;
+	private float mDistance = MIN_DISTANCE_M;
+
+	/**
+	 * Adjusts intervals to the current movement.
+	 *
+	 * @param speed        Speed of the user, in m/s.
+	 * @param edgeDistance How far the user has to move to enter another cell, in meters.
+	 * @return True if any of the intervals has changed.
+	 */
+	public boolean update(double speed, double edgeDistance) {
+		// sample at least twice before the user can get to the next cell
+		long interval;
+		if (speed < STATIONARY_SPEED) {
+			interval = MAX_INTERVAL_MS;
+		} else {
+			interval = (long) (edgeDistance / speed * 1000 / 2);
+		}
+		float distance = (float) (edgeDistance / 2);
+
+		interval = step(interval, MIN_INTERVAL_MS, MAX_INTERVAL_MS);
+		distance = step((long) distance, (long) MIN_DISTANCE_M, (long) MAX_DISTANCE_M);
+		if (interval == mInterval && distance == mDistance) {
+			return false;
+		}
+		mInterval = interval;
+		mDistance = distance;
+		return true;
+	}
+
+	/**
+	 * Returns the largest of min, 2 * min, 4 * min... up to max, which is not above value.
+	 */
+	private static long step(long value, long min, long max) {
+		long step = min;
+		while (step * 2 <= value && step * 2 <= max) {
+			step *= 2;
+		}
+		return step;
+	}
+
+	/**
+	 * Returns minimal time between fixes, in milliseconds.
+	 *
+	 * @return
+	 */
+	public long getInterval() {
+		return mInterval;
+	}
+
+	/**
+	 * Returns minimal distance between fixes, in meters.
+	 *
+	 * @return
+	 */
+	public float getDistance() {
+		return mDistance;
+	}
+}
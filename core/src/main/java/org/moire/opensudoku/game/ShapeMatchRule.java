@@ -0,0 +1,87 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Matches everything {@link LineMatchRule} does, plus L and T shapes of five equal tiles
+ * containing the tile, wherever the tile sits in the shape.
+ * <p/>
+ * Shapes are placed around the tile from a few templates on the fly, each template once for
+ * every one of its cells the tile can be, so evaluating a tile only compares the cells of the
+ * few placements which contain it, whatever the size of the board.
+ */
+class ShapeMatchRule implements MatchRule {
+	private static final int SHAPE_SIZE = 5;
+
+	// {row, column} offsets of the shape cells within 3x3 box, all four rotations of each shape.
+	private static final int[][][] TEMPLATES = {
+			// L
+			{{0, 0}, {1, 0}, {2, 0}, {2, 1}, {2, 2}},
+			{{0, 0}, {0, 1}, {0, 2}, {1, 0}, {2, 0}},
+			{{0, 0}, {0, 1}, {0, 2}, {1, 2}, {2, 2}},
+			{{0, 2}, {1, 2}, {2, 2}, {2, 1}, {2, 0}},
+			// T
+			{{0, 0}, {0, 1}, {0, 2}, {1, 1}, {2, 1}},
+			{{2, 0}, {2, 1}, {2, 2}, {1, 1}, {0, 1}},
+			{{0, 0}, {1, 0}, {2, 0}, {1, 1}, {1, 2}},
+			{{0, 2}, {1, 2}, {2, 2}, {1, 1}, {1, 0}},
+	};
+
+	@Override
+	public int findMatch(CellCollection cells, int index, int[] matched) {
+		int count = LINES.findMatch(cells, index, matched);
+
+		int columns = cells.getColumnCount();
+		int row = index / columns;
+		int column = index % columns;
+
+		// Cells already listed within the 5x5 window centred at the tile, bit (dr + 2) * 5 + dc + 2.
+		// No shape containing the tile reaches further.
+		int listed = 0;
+		for (int i = 0; i < count; i++) {
+			listed |= windowBit(matched[i] / columns - row, matched[i] % columns - column);
+		}
+
+		int value = cells.getValue(index);
+		int lastAnchorRow = cells.getRowCount() - 3;
+		int lastAnchorColumn = columns - 3;
+		for (int[][] template : TEMPLATES) {
+			for (int[] self : template) {
+				// top left corner of the placement putting this template cell onto the tile
+				int anchorRow = row - self[0];
+				int anchorColumn = column - self[1];
+				if (anchorRow < 0 || anchorRow > lastAnchorRow || anchorColumn < 0 || anchorColumn > lastAnchorColumn) {
+					continue;
+				}
+
+				boolean complete = true;
+				for (int i = 0; i < SHAPE_SIZE && complete; i++) {
+					complete = cells.getValue((anchorRow + template[i][0]) * columns + anchorColumn + template[i][1]) == value;
+				}
+				if (!complete) {
+					continue;
+				}
+				for (int i = 0; i < SHAPE_SIZE; i++) {
+					int bit = windowBit(anchorRow + template[i][0] - row, anchorColumn + template[i][1] - column);
+					if ((listed & bit) == 0) {
+						listed |= bit;
+						matched[count++] = (anchorRow + template[i][0]) * columns + anchorColumn + template[i][1];
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public boolean canMatch(CellCollection cells, int value) {
+		// every cell of an L or T shape lies on one of its straight arms of three, so a placement
+		// completing a shape always completes a line too
+		return LINES.canMatch(cells, value);
+	}
+
+	private static int windowBit(int dr, int dc) {
+		if (dr < -2 || dr > 2 || dc < -2 || dc > 2) {
+			return 0;
+		}
+		return 1 << ((dr + 2) * 5 + dc + 2);
+	}
+}
@@ -0,0 +1,49 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Relative chances of the unlocked tile chains to spawn, see
+ * {@link CellCollection#setSpawnWeights(SpawnWeights)}. Chains are those of the
+ * {@link EvolutionCatalog}, each spawning with its first tile.
+ */
+public interface SpawnWeights {
+
+	/**
+	 * Every unlocked chain equally likely.
+	 */
+	SpawnWeights UNIFORM = new SpawnWeights() {
+		@Override
+		public double weight(int chain, int unlocked) {
+			return 1;
+		}
+	};
+
+	/**
+	 * Returns weight of given chain, not negative. Weights of the unlocked chains need not
+	 * sum up to anything, but not all of them may be 0.
+	 *
+	 * @param chain    0 to <code>unlocked - 1</code>.
+	 * @param unlocked Number of unlocked chains, weights may follow a difficulty curve over it.
+	 * @return
+	 */
+	double weight(int chain, int unlocked);
+
+	/**
+	 * Each chain <code>ratio</code> times as likely as the one before, so below 1 higher
+	 * chains are rarer.
+	 */
+	class Geometric implements SpawnWeights {
+		private final double mRatio;
+
+		public Geometric(double ratio) {
+			if (!(ratio > 0) || Double.isInfinite(ratio)) {
+				throw new IllegalArgumentException("Ratio must be positive.");
+			}
+			mRatio = ratio;
+		}
+
+		@Override
+		public double weight(int chain, int unlocked) {
+			return Math.pow(mRatio, chain);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Small, fast random generator (SplitMix64) for the tiles of a game. Its whole state is one
+ * long, which is saved with the game, so a restored game goes on with the same tiles.
+ * <p/>
+ * Each number is derived from the state advanced by a constant, so the generator can jump
+ * any number of steps ahead in constant time, and a run of parallel games can give each
+ * game its own stream without any synchronization. Instances are not thread safe, use one
+ * per game or thread.
+ */
+public final class SplitMix64 {
+	private static final long GAMMA = 0x9E3779B97F4A7C15L;
+	private static final long GAME_SALT = 0x5DEECE66DL;
+
+	private long mState;
+
+	public SplitMix64(long state) {
+		mState = state;
+	}
+
+	/**
+	 * Returns seed of the tiles of the game with given id, the same on every device.
+	 *
+	 * @param gameId
+	 * @return
+	 */
+	public static long gameSeed(long gameId) {
+		return Zobrist.mix(gameId ^ GAME_SALT);
+	}
+
+	public long nextLong() {
+		mState += GAMMA;
+		return Zobrist.mix(mState);
+	}
+
+	/**
+	 * Returns number from 0 (inclusive) to <code>bound</code> (exclusive). Every call takes
+	 * exactly one step, see {@link #jump(long)}.
+	 *
+	 * @param bound Positive bound.
+	 * @return
+	 */
+	public int nextInt(int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("Bound must be positive.");
+		}
+		// high 32 bits scaled to the bound, biased by less than bound / 2^32
+		return (int) (((nextLong() >>> 32) * bound) >>> 32);
+	}
+
+	/**
+	 * Moves given number of steps ahead, or back if negative, in constant time.
+	 *
+	 * @param steps
+	 */
+	public void jump(long steps) {
+		mState += steps * GAMMA;
+	}
+
+	/**
+	 * Returns new generator seeded from this one. Streams of split generators start at
+	 * unrelated points of the 2^64 long cycle, so games of any realistic length do not
+	 * overlap.
+	 *
+	 * @return
+	 */
+	public SplitMix64 split() {
+		return new SplitMix64(nextLong());
+	}
+
+	/**
+	 * Returns state of the generator, a new generator created with it produces the same
+	 * numbers from now on.
+	 *
+	 * @return
+	 */
+	public long getState() {
+		return mState;
+	}
+
+	public void setState(long state) {
+		mState = state;
+	}
+}
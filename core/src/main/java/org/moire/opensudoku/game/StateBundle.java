@@ -0,0 +1,48 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Key-value store for saving and restoring state of the game, independent of the platform.
+ * Android's Bundle is wrapped into it by the app, {@link MapStateBundle} serves elsewhere.
+ * <p/>
+ * Getters return 0, false or null for keys which have not been put.
+ */
+public interface StateBundle {
+
+	void putBoolean(String key, boolean value);
+
+	boolean getBoolean(String key);
+
+	void putInt(String key, int value);
+
+	int getInt(String key);
+
+	void putLong(String key, long value);
+
+	long getLong(String key);
+
+	void putString(String key, String value);
+
+	String getString(String key);
+
+	void putIntArray(String key, int[] value);
+
+	int[] getIntArray(String key);
+
+	void putStringArray(String key, String[] value);
+
+	String[] getStringArray(String key);
+
+	/**
+	 * Puts nested bundle, it has to be created by {@link #newBundle()} of this bundle.
+	 */
+	void putBundle(String key, StateBundle value);
+
+	StateBundle getBundle(String key);
+
+	/**
+	 * Returns new empty bundle of the same kind, to be put into this one.
+	 *
+	 * @return
+	 */
+	StateBundle newBundle();
+}
@@ -20,8 +20,6 @@
 
 package org.moire.opensudoku.game;
 
-import android.os.Bundle;
-import android.os.SystemClock;
 import org.moire.opensudoku.game.command.ClearAllNotesCommand;
 import org.moire.opensudoku.game.command.AbstractCommand;
 import org.moire.opensudoku.game.command.CommandStack;
@@ -45,6 +43,9 @@ public class SudokuGame {
 
 	private OnPuzzleSolvedListener mOnPuzzleSolvedListener;
 	private CommandStack mCommandStack;
+	private boolean mSnapshotUndo = false;
+	private TraceRecorder mTraceRecorder;
+	private Clock mClock = Clock.SYSTEM;
 	// Time when current activity has become active. 
 	private long mActiveFromTime = -1;
 
@@ -64,7 +65,7 @@ public class SudokuGame {
 		mState = GAME_STATE_NOT_STARTED;
 	}
 
-	public void saveState(Bundle outState) { //MYTODO save score etc
+	public void saveState(StateBundle outState) { //MYTODO save score etc
 		outState.putLong("id", mId);
 		outState.putString("note", mNote);
 		outState.putLong("created", mCreated);
@@ -72,28 +73,45 @@ public class SudokuGame {
 		outState.putLong("time", mTime);
 		outState.putLong("lastPlayed", mLastPlayed);
 		outState.putString("cells", mCells.serialize());
-		outState.putInt("next_emoji", mCells.next_food.getFirst()); // MYTODO: cope with more than one value
 
 		mCommandStack.saveState(outState);
 	}
 
-	public void restoreState(Bundle inState) {
+	public void restoreState(StateBundle inState) {
 		mId = inState.getLong("id");
 		mNote = inState.getString("note");
 		mCreated = inState.getLong("created");
 		mState = inState.getInt("state");
 		mTime = inState.getLong("time");
 		mLastPlayed = inState.getLong("lastPlayed");
-		mCells = CellCollection.deserialize(inState.getString("cells"));
-		mCells.next_food.push(inState.getInt("next_emoji"));
+		// the catalog is not saved, the game goes on with the one it is played with
+		EvolutionCatalog catalog = mCells != null ? mCells.getEvolutionCatalog() : EvolutionCatalog.getDefault();
+		mCells = CellCollection.deserialize(inState.getString("cells"), catalog);
+		// upcoming tiles are saved with the cells
+		mCells.fillNext();
 
 		mCommandStack = new CommandStack(mCells);
+		mCommandStack.setSnapshotsEnabled(mSnapshotUndo);
 		mCommandStack.restoreState(inState);
 
 		validate();
 	}
 
 
+	/**
+	 * Sets clock measuring time spent playing, {@link Clock#SYSTEM} by default.
+	 */
+	public void setClock(Clock clock) {
+		mClock = clock;
+	}
+
+	/**
+	 * Sets recorder of tile placements, null to stop recording them.
+	 */
+	public void setTraceRecorder(TraceRecorder recorder) {
+		mTraceRecorder = recorder;
+	}
+
 	public void setOnPuzzleSolvedListener(OnPuzzleSolvedListener l) {
 		mOnPuzzleSolvedListener = l;
 	}
@@ -138,7 +156,7 @@ public class SudokuGame {
 	 */
 	public long getTime() {
 		if (mActiveFromTime != -1) {
-			return mTime + SystemClock.uptimeMillis() - mActiveFromTime;
+			return mTime + mClock.uptimeMillis() - mActiveFromTime;
 		} else {
 			return mTime;
 		}
@@ -156,6 +174,7 @@ public class SudokuGame {
 		mCells = cells;
 		validate();
 		mCommandStack = new CommandStack(mCells);
+		mCommandStack.setSnapshotsEnabled(mSnapshotUndo);
 	}
 
 	public CellCollection getCells() {
@@ -181,12 +200,23 @@ public class SudokuGame {
 		if (cell == null) {
 			throw new IllegalArgumentException("Cell cannot be null.");
 		}
+		if (mTraceRecorder != null) {
+			mTraceRecorder.onTap(mClock.uptimeMillis(),
+					cell.getRowIndex() * mCells.getColumnCount() + cell.getColumnIndex(), value);
+		}
 
 		if ( cell.getValue()==0 && (mCells.mCheatMode>0 || cell == mCells.getSelectedCell() ))
 		{
 			executeCommand(new SetCellValueCommand(cell, value));
 
 			mCells.consumeMatchingLines(cell);
+
+			if (isCompleted()) {
+				finish();
+				if (mOnPuzzleSolvedListener != null) {
+					mOnPuzzleSolvedListener.onPuzzleSolved();
+				}
+			}
 		}
 
 	}
@@ -237,11 +267,46 @@ public class SudokuGame {
 		return mCommandStack.hasCheckpoint();
 	}
 
+	/**
+	 * Forgets all moves to undo, to be called when cells have been replaced by another board,
+	 * e.g. another {@link World} chunk; undoing them would bring the old board back.
+	 */
+	public void clearUndo() {
+		mCommandStack.clear();
+	}
 
 	/**
-	 * Start game-play.
+	 * Sets whether moves from now on are undone by putting back a snapshot of the board taken
+	 * before them, see {@link CommandStack#setSnapshotsEnabled(boolean)}. Such undo also brings
+	 * back score, unlocked chains and upcoming tiles. Off by default.
+	 *
+	 * @param snapshotUndo
+	 */
+	public void setSnapshotUndo(boolean snapshotUndo) {
+		mSnapshotUndo = snapshotUndo;
+		if (mCommandStack != null) {
+			mCommandStack.setSnapshotsEnabled(snapshotUndo);
+		}
+	}
+
+	/**
+	 * Returns board as it was given number of moves ago, see {@link CommandStack#getSnapshot(int)}.
+	 *
+	 * @param movesAgo
+	 * @return
+	 */
+	public BoardSnapshot getSnapshot(int movesAgo) {
+		return mCommandStack.getSnapshot(movesAgo);
+	}
+
+
+	/**
+	 * Start game-play. Tiles to come are seeded from the game id, so every play of the same
+	 * game, restarts included, gets the same tiles.
 	 */
 	public void start() {
+		mCells.setSeed(SplitMix64.gameSeed(mId));
+		mCells.resetNext();
 		mState = GAME_STATE_PLAYING;
 		resume();
 	}
@@ -249,7 +314,7 @@ public class SudokuGame {
 	public void resume() {
 		// reset time we have spent playing so far, so time when activity was not active
 		// will not be part of the game play time
-		mActiveFromTime = SystemClock.uptimeMillis();
+		mActiveFromTime = mClock.uptimeMillis();
 	}
 
 	/**
@@ -257,7 +322,7 @@ public class SudokuGame {
 	 */
 	public void pause() {
 		// save time we have spent playing so far - it will be reseted after resuming
-		mTime += SystemClock.uptimeMillis() - mActiveFromTime;
+		mTime += mClock.uptimeMillis() - mActiveFromTime;
 		mActiveFromTime = -1;
 
 		setLastPlayed(System.currentTimeMillis());
@@ -275,12 +340,12 @@ public class SudokuGame {
 	 * Resets game.
 	 */
 	public void reset() {
-		for (int r = 0; r < CellCollection.SUDOKU_SIZE; r++) {
-			for (int c = 0; c < CellCollection.SUDOKU_SIZE; c++) {
+		for (int r = 0; r < mCells.getRowCount(); r++) {
+			for (int c = 0; c < mCells.getColumnCount(); c++) {
 				Cell cell = mCells.getCell(r, c);
 				cell.setValue(0);
-				cell.setNote(new CellNote());
-				cell.mHighlight = false;
+				cell.setNote(CellNote.EMPTY);
+				cell.setHighlighted(false);
 			}
 		}
 		mCells.reset();
@@ -291,13 +356,22 @@ public class SudokuGame {
 	}
 
 	/**
-	 * Returns true, if puzzle is solved. In order to know the current state, you have to
-	 * call validate first.
+	 * Returns true, if the game is over (no empty cell remains).
 	 *
 	 * @return
 	 */
 	public boolean isCompleted() {
-		return mCells.isCompleted();
+		// the outcome would also look for a match of the next tile
+		return mCells.getFilledCount() == mCells.getCellCount();
+	}
+
+	/**
+	 * Returns outcome of the board for the tile which will be placed next.
+	 *
+	 * @return
+	 */
+	public GameOutcome getOutcome() {
+		return mCells.getOutcome();
 	}
 
 	public void clearAllNotes() {
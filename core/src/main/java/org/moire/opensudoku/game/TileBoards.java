@@ -0,0 +1,112 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Bitboards of tiles placed in {@link CellCollection}, one board per tile value.
+ * <p/>
+ * Each board has one bit per cell. Every line (row or column) takes a whole number of longs,
+ * bit n of word w standing for position w * 64 + n, and every board is kept twice,
+ * row-major and column-major, so that neighbours along a line are neighbouring bits and
+ * a whole line can be examined with a few shifts and masks per 64 cells. The board of
+ * value 0 holds the empty cells. Nothing here allocates after construction.
+ */
+class TileBoards {
+	private final int mRowCount;
+	private final int mColumnCount;
+	private final int mRowWords; // longs per row
+	private final int mColumnWords; // longs per column
+
+	// [(value * rows + row) * rowWords + word]
+	private final long[] mRows;
+	// [(value * columns + column) * columnWords + word]
+	private final long[] mColumns;
+
+	/**
+	 * Creates boards of an empty board.
+	 *
+	 * @param dimension  Size of the board.
+	 * @param valueCount Number of tile values, including 0 (empty).
+	 */
+	TileBoards(BoardDimension dimension, int valueCount) {
+		mRowCount = dimension.getRows();
+		mColumnCount = dimension.getColumns();
+		mRowWords = (mColumnCount + 63) / 64;
+		mColumnWords = (mRowCount + 63) / 64;
+		mRows = new long[valueCount * mRowCount * mRowWords];
+		mColumns = new long[valueCount * mColumnCount * mColumnWords];
+		for (int row = 0; row < mRowCount; row++) {
+			for (int column = 0; column < mColumnCount; column++) {
+				flip(mRows, mRowCount, mRowWords, 0, row, column);
+				flip(mColumns, mColumnCount, mColumnWords, 0, column, row);
+			}
+		}
+	}
+
+	/**
+	 * Moves cell at given position from board of <code>oldValue</code> to board of <code>newValue</code>.
+	 */
+	void move(int row, int column, int oldValue, int newValue) {
+		if (oldValue == newValue) {
+			return;
+		}
+		flip(mRows, mRowCount, mRowWords, oldValue, row, column);
+		flip(mColumns, mColumnCount, mColumnWords, oldValue, column, row);
+		flip(mRows, mRowCount, mRowWords, newValue, row, column);
+		flip(mColumns, mColumnCount, mColumnWords, newValue, column, row);
+	}
+
+	/**
+	 * Returns number of longs per row, see {@link #rowWord(int, int, int)}.
+	 */
+	int getRowWords() {
+		return mRowWords;
+	}
+
+	/**
+	 * Returns number of longs per column, see {@link #columnWord(int, int, int)}.
+	 */
+	int getColumnWords() {
+		return mColumnWords;
+	}
+
+	/**
+	 * Returns cells of given row holding <code>value</code>, bit n stands for column word * 64 + n.
+	 * Rows and words outside the board read as 0, so callers need not special-case the edges.
+	 */
+	long rowWord(int value, int row, int word) {
+		if (row < 0 || row >= mRowCount || word < 0 || word >= mRowWords) {
+			return 0;
+		}
+		return mRows[(value * mRowCount + row) * mRowWords + word];
+	}
+
+	/**
+	 * Returns cells of given column holding <code>value</code>, bit n stands for row word * 64 + n.
+	 * Columns and words outside the board read as 0.
+	 */
+	long columnWord(int value, int column, int word) {
+		if (column < 0 || column >= mColumnCount || word < 0 || word >= mColumnWords) {
+			return 0;
+		}
+		return mColumns[(value * mColumnCount + column) * mColumnWords + word];
+	}
+
+	/**
+	 * Shifts line towards higher positions by <code>n</code> (1 to 63) bits, <code>lower</code>
+	 * being the preceding word of the same line. Bit p of the result is bit p - n of the line.
+	 */
+	static long shiftUp(long word, long lower, int n) {
+		return (word << n) | (lower >>> (64 - n));
+	}
+
+	/**
+	 * Shifts line towards lower positions by <code>n</code> (1 to 63) bits, <code>higher</code>
+	 * being the following word of the same line. Bit p of the result is bit p + n of the line.
+	 */
+	static long shiftDown(long word, long higher, int n) {
+		return (word >>> n) | (higher << (64 - n));
+	}
+
+	private static void flip(long[] boards, int lineCount, int lineWords, int value, int line, int pos) {
+		boards[(value * lineCount + line) * lineWords + pos / 64] ^= 1L << (pos % 64);
+	}
+}
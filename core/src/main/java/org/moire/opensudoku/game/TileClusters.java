@@ -0,0 +1,195 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Clusters of 4-connected equal tiles in {@link CellCollection}, kept as union-find over cell
+ * indices and updated on every value change.
+ * <p/>
+ * Placing a tile unions it with its equal neighbours. Clearing or replacing a tile may split
+ * its former cluster, so the remaining part of that cluster is relabelled - this touches
+ * only cells of the one cluster. Tiles of a match are cleared together, so the rest of their
+ * cluster is relabelled once rather than once per tile. Members of each cluster are also
+ * linked into a cycle, so a cluster can be listed without a flood fill. Nothing here
+ * allocates after construction.
+ */
+class TileClusters {
+	private final int mRows;
+	private final int mColumns;
+
+	// Board values, shared with the owning collection.
+	private final byte[] mValues;
+
+	private final int[] mParent; // root of a cluster is its own parent
+	private final int[] mSize; // cluster size, valid for roots only
+	private final int[] mNext; // next member of the same cluster
+
+	// Scratch space for relabelling split clusters.
+	private final int[] mStack;
+	private final int[] mVisited;
+	private int mVisitStamp = 0;
+
+	TileClusters(BoardDimension dimension, byte[] values) {
+		mRows = dimension.getRows();
+		mColumns = dimension.getColumns();
+		mValues = values;
+		int cellCount = values.length;
+		mParent = new int[cellCount];
+		mSize = new int[cellCount];
+		mNext = new int[cellCount];
+		mStack = new int[cellCount];
+		mVisited = new int[cellCount];
+		for (int i = 0; i < cellCount; i++) {
+			mParent[i] = i;
+			mNext[i] = i;
+			mSize[i] = values[i] != 0 ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Updates clusters after value at given index changed from <code>oldValue</code>
+	 * (the new value is already stored).
+	 */
+	void onValueChanged(int index, int oldValue) {
+		if (oldValue != 0 && mSize[find(index)] > 1) {
+			relabelNeighbours(index, oldValue);
+		}
+
+		int value = mValues[index];
+		mParent[index] = index;
+		mNext[index] = index;
+		mSize[index] = value != 0 ? 1 : 0;
+		if (value == 0) {
+			return;
+		}
+
+		int row = index / mColumns;
+		int column = index % mColumns;
+		if (column > 0 && mValues[index - 1] == value) union(index, index - 1);
+		if (column < mColumns - 1 && mValues[index + 1] == value) union(index, index + 1);
+		if (row > 0 && mValues[index - mColumns] == value) union(index, index - mColumns);
+		if (row < mRows - 1 && mValues[index + mColumns] == value) union(index, index + mColumns);
+	}
+
+	/**
+	 * Updates clusters after given tiles, which all held <code>oldValue</code>, have been
+	 * cleared (their cells are already empty). Takes time proportional to the cleared tiles
+	 * plus the tiles left of their clusters.
+	 *
+	 * @param indices Cleared cells, the first <code>count</code> are used.
+	 */
+	void onTilesCleared(int[] indices, int count, int oldValue) {
+		for (int i = 0; i < count; i++) {
+			int index = indices[i];
+			mParent[index] = index;
+			mNext[index] = index;
+			mSize[index] = 0;
+		}
+		// one stamp for all, each remaining tile is relabelled once
+		mVisitStamp++;
+		for (int i = 0; i < count; i++) {
+			relabelAround(indices[i], oldValue);
+		}
+	}
+
+	/**
+	 * Returns number of tiles in the cluster containing given cell, 0 for empty cell.
+	 */
+	int size(int index) {
+		return mSize[find(index)];
+	}
+
+	/**
+	 * Writes indices of all tiles in the cluster containing given cell to <code>out</code>.
+	 *
+	 * @return Number of tiles written.
+	 */
+	int collect(int index, int[] out) {
+		int count = 0;
+		int i = index;
+		do {
+			out[count++] = i;
+			i = mNext[i];
+		} while (i != index);
+		return count;
+	}
+
+	private int find(int index) {
+		while (mParent[index] != index) {
+			mParent[index] = mParent[mParent[index]]; // path halving
+			index = mParent[index];
+		}
+		return index;
+	}
+
+	private void union(int a, int b) {
+		int ra = find(a);
+		int rb = find(b);
+		if (ra == rb) {
+			return;
+		}
+		if (mSize[ra] < mSize[rb]) {
+			int tmp = ra;
+			ra = rb;
+			rb = tmp;
+		}
+		mParent[rb] = ra;
+		mSize[ra] += mSize[rb];
+		// swapping successors joins the two member cycles into one
+		int tmp = mNext[ra];
+		mNext[ra] = mNext[rb];
+		mNext[rb] = tmp;
+	}
+
+	/**
+	 * Rebuilds clusters of the neighbours of a cell which no longer holds <code>oldValue</code>,
+	 * each flood reaching a not yet visited neighbour becomes one new cluster.
+	 */
+	private void relabelNeighbours(int index, int oldValue) {
+		mVisitStamp++;
+		relabelAround(index, oldValue);
+	}
+
+	private void relabelAround(int index, int oldValue) {
+		int row = index / mColumns;
+		int column = index % mColumns;
+		if (column > 0) relabelFrom(index - 1, oldValue);
+		if (column < mColumns - 1) relabelFrom(index + 1, oldValue);
+		if (row > 0) relabelFrom(index - mColumns, oldValue);
+		if (row < mRows - 1) relabelFrom(index + mColumns, oldValue);
+	}
+
+	private void relabelFrom(int start, int value) {
+		if (mValues[start] != value || mVisited[start] == mVisitStamp) {
+			return;
+		}
+
+		int size = 0;
+		int last = start;
+		int top = 0;
+		mStack[top++] = start;
+		mVisited[start] = mVisitStamp;
+		while (top > 0) {
+			int i = mStack[--top];
+			mParent[i] = start;
+			mNext[last] = i;
+			last = i;
+			size++;
+
+			int row = i / mColumns;
+			int column = i % mColumns;
+			if (column > 0) top = push(i - 1, value, top);
+			if (column < mColumns - 1) top = push(i + 1, value, top);
+			if (row > 0) top = push(i - mColumns, value, top);
+			if (row < mRows - 1) top = push(i + mColumns, value, top);
+		}
+		mNext[last] = start;
+		mSize[start] = size;
+	}
+
+	private int push(int index, int value, int top) {
+		if (mValues[index] == value && mVisited[index] != mVisitStamp) {
+			mVisited[index] = mVisitStamp;
+			mStack[top++] = index;
+		}
+		return top;
+	}
+}
@@ -0,0 +1,131 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Z-order (Morton) keys of world cells, used to index placed tiles spatially. Bits of the
+ * cell's x and y coordinates are interleaved, so cells close to each other mostly get close
+ * keys and any square of the quadtree over the world is one contiguous range of keys. A box
+ * query then takes a few key range lookups in a sorted index, whatever the number of tiles.
+ * <p/>
+ * Keys compare as signed longs in the same order as the underlying unsigned Morton codes.
+ *
+ * @see World#cellX(long, BoardDimension, int)
+ */
+public final class TileIndex {
+
+	// Coordinates are offset to unsigned before interleaving.
+	private static final long OFFSET = 1L << 31;
+	// Flipping the top bit makes signed order of keys equal unsigned order of the codes.
+	private static final long SIGN = Long.MIN_VALUE;
+	// Levels of the quadtree, a square on level L is 2^L cells wide.
+	private static final int LEVELS = 32;
+
+	private TileIndex() {
+	}
+
+	/**
+	 * Returns key of the cell at given world coordinates.
+	 */
+	public static long key(int x, int y) {
+		return code(x + OFFSET, y + OFFSET) ^ SIGN;
+	}
+
+	public static int x(long key) {
+		return (int) (compact((key ^ SIGN)) - OFFSET);
+	}
+
+	public static int y(long key) {
+		return (int) (compact((key ^ SIGN) >>> 1) - OFFSET);
+	}
+
+	/**
+	 * Returns key ranges covering all cells of given box, as {first, last, first, last...}
+	 * pairs in ascending order, both ends inclusive. There are at most 25 ranges. They may
+	 * also cover cells around the box, no further from it than half of the box's longer side.
+	 *
+	 * @param minX Left column of the box.
+	 * @param minY Bottom row of the box.
+	 * @param maxX Right column of the box, inclusive.
+	 * @param maxY Top row of the box, inclusive.
+	 * @return
+	 */
+	public static long[] ranges(int minX, int minY, int maxX, int maxY) {
+		if (minX > maxX || minY > maxY) {
+			return new long[0];
+		}
+		long x0 = minX + OFFSET;
+		long y0 = minY + OFFSET;
+		long x1 = maxX + OFFSET;
+		long y1 = maxY + OFFSET;
+
+		// squares on this level which overlap the box are taken whole; they are more than
+		// a quarter and at most a half of the box's side wide, so at most 5 of them per axis
+		// overlap the box
+		long side = Math.max(x1 - x0, y1 - y0) + 1;
+		int minLevel = Math.max(0, 64 - Long.numberOfLeadingZeros(side) - 2);
+
+		long[] out = new long[64];
+		int count = collect(0, 0, LEVELS, x0, y0, x1, y1, minLevel, out, 0);
+
+		long[] ranges = new long[count];
+		for (int i = 0; i < count; i++) {
+			ranges[i] = out[i] ^ SIGN;
+		}
+		return ranges;
+	}
+
+	/**
+	 * Collects ranges of the square with given lower left corner on given level into out,
+	 * merging ranges which continue each other. Squares are visited in key order.
+	 *
+	 * @return New number of longs used in out.
+	 */
+	private static int collect(long sx, long sy, int level, long x0, long y0, long x1, long y1,
+							   int minLevel, long[] out, int count) {
+		long last = (1L << level) - 1;
+		if (sx > x1 || sy > y1 || sx + last < x0 || sy + last < y0) {
+			return count;
+		}
+		boolean inside = sx >= x0 && sy >= y0 && sx + last <= x1 && sy + last <= y1;
+		if (inside || level <= minLevel) {
+			long first = code(sx, sy);
+			long end = first + (level == LEVELS ? -1 : (1L << (2 * level)) - 1);
+			if (count > 0 && out[count - 1] + 1 == first) {
+				out[count - 1] = end;
+				return count;
+			}
+			out[count] = first;
+			out[count + 1] = end;
+			return count + 2;
+		}
+
+		long half = 1L << (level - 1);
+		// children in key order: x bit is the lower one
+		count = collect(sx, sy, level - 1, x0, y0, x1, y1, minLevel, out, count);
+		count = collect(sx + half, sy, level - 1, x0, y0, x1, y1, minLevel, out, count);
+		count = collect(sx, sy + half, level - 1, x0, y0, x1, y1, minLevel, out, count);
+		return collect(sx + half, sy + half, level - 1, x0, y0, x1, y1, minLevel, out, count);
+	}
+
+	// Interleaves lower 32 bits of x into even bits and of y into odd bits.
+	private static long code(long x, long y) {
+		return spread(x) | (spread(y) << 1);
+	}
+
+	private static long spread(long v) {
+		v &= 0xffffffffL;
+		v = (v | (v << 16)) & 0x0000ffff0000ffffL;
+		v = (v | (v << 8)) & 0x00ff00ff00ff00ffL;
+		v = (v | (v << 4)) & 0x0f0f0f0f0f0f0f0fL;
+		v = (v | (v << 2)) & 0x3333333333333333L;
+		return (v | (v << 1)) & 0x5555555555555555L;
+	}
+
+	private static long compact(long v) {
+		v &= 0x5555555555555555L;
+		v = (v | (v >>> 1)) & 0x3333333333333333L;
+		v = (v | (v >>> 2)) & 0x0f0f0f0f0f0f0f0fL;
+		v = (v | (v >>> 4)) & 0x00ff00ff00ff00ffL;
+		v = (v | (v >>> 8)) & 0x0000ffff0000ffffL;
+		return (v | (v >>> 16)) & 0x00000000ffffffffL;
+	}
+}
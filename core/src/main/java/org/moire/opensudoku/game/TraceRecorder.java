@@ -0,0 +1,142 @@
+package org.moire.opensudoku.game;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records location fixes and taps of a game session into a compact binary trace, which
+ * {@link TraceReplayer} plays back.
+ * <p/>
+ * Trace starts with a header: {@link #MAGIC}, {@link #VERSION}, state of the tile generator,
+ * serialized board and the tiles coming next. Records follow, each starting with its type
+ * and milliseconds since the previous record:
+ * <ul>
+ * <li>{@link #FIX}: latitude, longitude (doubles), accuracy (float), time of the fix (long)</li>
+ * <li>{@link #TAP}: cell index (int), value (byte)</li>
+ * </ul>
+ * The tile generator is recorded as it is when recording starts, so that the session can be
+ * replayed exactly. Version 1 traces held a seed of java.util.Random instead and cannot be
+ * replayed any more.
+ * <p/>
+ * Methods may be called from any thread. Recording is a diagnostic aid, so a failed write does
+ * not disturb the game: recording stops and the error is kept, see {@link #getError()}.
+ */
+public class TraceRecorder {
+
+	public static final int MAGIC = 0x4f535452; // "OSTR"
+	public static final int VERSION = 2;
+
+	public static final byte FIX = 1;
+	public static final byte TAP = 2;
+
+	private final DataOutputStream mOut;
+	private long mLastTime;
+	private IOException mError;
+
+	/**
+	 * Starts recording session of given board.
+	 *
+	 * @param out   Stream to write to, it is closed by {@link #close()}.
+	 * @param cells Board of the session.
+	 * @param time  Time the session starts, in milliseconds, on the clock used for records.
+	 */
+	public TraceRecorder(OutputStream out, CellCollection cells, long time) throws IOException {
+		mOut = new DataOutputStream(out);
+		mLastTime = time;
+
+		mOut.writeInt(MAGIC);
+		mOut.writeShort(VERSION);
+		mOut.writeLong(cells.getSpawnState());
+		mOut.writeUTF(cells.serialize());
+		mOut.writeByte(cells.getNextCount());
+		for (int i = 0; i < cells.getNextCount(); i++) {
+			mOut.writeByte(cells.getNext(i));
+		}
+	}
+
+	/**
+	 * Records location fix.
+	 *
+	 * @param time     Time the fix has arrived, in milliseconds.
+	 * @param fixTime  Time of the fix as reported by the provider.
+	 */
+	public synchronized void onFix(long time, double lat, double lon, float accuracy, long fixTime) {
+		if (startRecord(FIX, time)) {
+			try {
+				mOut.writeDouble(lat);
+				mOut.writeDouble(lon);
+				mOut.writeFloat(accuracy);
+				mOut.writeLong(fixTime);
+			} catch (IOException e) {
+				mError = e;
+			}
+		}
+	}
+
+	/**
+	 * Records tap placing a tile.
+	 *
+	 * @param time  Time of the tap, in milliseconds.
+	 * @param index Index of the tapped cell.
+	 * @param value Value passed to {@link SudokuGame#setCellValue(Cell, int)}.
+	 */
+	public synchronized void onTap(long time, int index, int value) {
+		if (startRecord(TAP, time)) {
+			try {
+				mOut.writeInt(index);
+				mOut.writeByte(value);
+			} catch (IOException e) {
+				mError = e;
+			}
+		}
+	}
+
+	private boolean startRecord(byte type, long time) {
+		if (mError != null) {
+			return false;
+		}
+		try {
+			mOut.writeByte(type);
+			mOut.writeInt((int) Math.max(0, time - mLastTime));
+			mLastTime = Math.max(mLastTime, time);
+			return true;
+		} catch (IOException e) {
+			mError = e;
+			return false;
+		}
+	}
+
+	/**
+	 * Writes buffered records out, so that they survive the process being killed.
+	 */
+	public synchronized void flush() {
+		if (mError != null) {
+			return;
+		}
+		try {
+			mOut.flush();
+		} catch (IOException e) {
+			mError = e;
+		}
+	}
+
+	public synchronized void close() {
+		try {
+			mOut.close();
+		} catch (IOException e) {
+			if (mError == null) {
+				mError = e;
+			}
+		}
+	}
+
+	/**
+	 * Returns error which has stopped the recording, null if there was none.
+	 *
+	 * @return
+	 */
+	public synchronized IOException getError() {
+		return mError;
+	}
+}
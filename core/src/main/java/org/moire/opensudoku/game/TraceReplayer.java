@@ -0,0 +1,177 @@
+package org.moire.opensudoku.game;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Plays back traces written by {@link TraceRecorder}. Fixes go through {@link LocationFilter}
+ * into {@link World}, the way the game processes them, taps go to
+ * {@link SudokuGame#setCellValue(Cell, int)}. Chunks other than the one of the recorded board
+ * start empty and stay in memory.
+ * <p/>
+ * Runs without a device:
+ * <code>java org.moire.opensudoku.game.TraceReplayer trace [speed]</code>
+ */
+public class TraceReplayer {
+
+	/**
+	 * Result of a replay.
+	 */
+	public static class Report {
+		public int fixCount;
+		public int tapCount;
+		// board changes, each one is a redraw of the board view
+		public int redrawCount;
+		// time spent processing each fix, in nanoseconds
+		public long[] fixLatencies;
+		public long finalHash;
+
+		/**
+		 * Returns latency of given percentile of fixes, in nanoseconds.
+		 *
+		 * @param percentile Between 0 and 100.
+		 */
+		public long getFixLatency(int percentile) {
+			if (fixLatencies.length == 0) {
+				return 0;
+			}
+			long[] sorted = fixLatencies.clone();
+			Arrays.sort(sorted);
+			return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+		}
+
+		@Override
+		public String toString() {
+			return "fixes: " + fixCount + ", taps: " + tapCount + ", redraws: " + redrawCount
+					+ ", fix latency p50/p99/max: " + getFixLatency(50) / 1000 + "/" + getFixLatency(99) / 1000
+					+ "/" + getFixLatency(100) / 1000 + " us"
+					+ ", final hash: " + Long.toHexString(finalHash);
+		}
+	}
+
+	// Keeps chunks in memory, loads complete at once.
+	private static class MemoryChunkLoader implements ChunkLoader {
+		private final Map<Long, byte[]> mChunks = new HashMap<Long, byte[]>();
+
+		@Override
+		public void load(long key, Callback callback) {
+			byte[] values = mChunks.get(key);
+			callback.onChunkLoaded(key, values == null ? null : values.clone(), mChunks.isEmpty());
+		}
+
+		@Override
+		public void save(long key, byte[] values) {
+			mChunks.put(key, values);
+		}
+	}
+
+	/**
+	 * Replays given trace.
+	 *
+	 * @param in    Trace, it is read to the end but not closed.
+	 * @param speed How many times faster than recorded to replay, 0 for no waiting at all.
+	 */
+	public static Report replay(InputStream in, double speed) throws IOException, InterruptedException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != TraceRecorder.MAGIC) {
+			throw new IOException("Not a trace.");
+		}
+		int version = data.readUnsignedShort();
+		if (version != TraceRecorder.VERSION) {
+			throw new IOException("Unknown trace version " + version + ".");
+		}
+
+		long spawnState = data.readLong();
+		CellCollection cells = CellCollection.deserialize(data.readUTF());
+		int nextCount = data.readUnsignedByte();
+		int[] next = new int[nextCount];
+		for (int i = 0; i < nextCount; i++) {
+			next[i] = data.readByte();
+		}
+		cells.setNext(next, nextCount);
+		cells.setSeed(spawnState);
+
+		SudokuGame game = new SudokuGame();
+		game.setCells(cells);
+		World world = new World(cells, new MemoryChunkLoader());
+		LocationFilter filter = new LocationFilter(LocationFilter.DEFAULT_HYSTERESIS_M);
+
+		final Report report = new Report();
+		cells.addOnChangeListener(new CellCollection.OnChangeListener() {
+			@Override
+			public void onChange() {
+				report.redrawCount++;
+			}
+		});
+
+		long[] latencies = new long[64];
+		while (true) {
+			byte type;
+			try {
+				type = data.readByte();
+			} catch (EOFException e) {
+				break;
+			}
+			int delay = data.readInt();
+			if (speed > 0 && delay > 0) {
+				long sleep = (long) (delay * 1000000L / speed);
+				Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
+			}
+
+			if (type == TraceRecorder.FIX) {
+				double lat = data.readDouble();
+				double lon = data.readDouble();
+				float accuracy = data.readFloat();
+				long fixTime = data.readLong();
+
+				long start = System.nanoTime();
+				if (filter.update(lat, lon, accuracy, fixTime)) {
+					world.setCell(filter.getCellX(), filter.getCellY());
+				}
+				if (report.fixCount == latencies.length) {
+					latencies = copyOf(latencies, latencies.length * 2);
+				}
+				latencies[report.fixCount++] = System.nanoTime() - start;
+			} else if (type == TraceRecorder.TAP) {
+				int index = data.readInt();
+				int value = data.readByte();
+				game.setCellValue(cells.getCell(index / cells.getColumnCount(), index % cells.getColumnCount()), value);
+				report.tapCount++;
+			} else {
+				throw new IOException("Unknown record type " + type + ".");
+			}
+		}
+
+		report.fixLatencies = copyOf(latencies, report.fixCount);
+		report.finalHash = cells.getHash();
+		return report;
+	}
+
+	// Arrays.copyOf is not available on older platforms.
+	private static long[] copyOf(long[] array, int length) {
+		long[] copy = new long[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(length, array.length));
+		return copy;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 1) {
+			System.err.println("Usage: TraceReplayer trace [speed]");
+			System.exit(1);
+		}
+		double speed = args.length > 1 ? Double.parseDouble(args[1]) : 1000;
+		InputStream in = new BufferedInputStream(new FileInputStream(args[0]));
+		try {
+			System.out.println(replay(in, speed));
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,271 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Unbounded board laid over the map. The world is split into chunks the size of the
+ * {@link CellCollection} it is shown on, each {@link #CELL_WIDTH_M} meters wide cell of a chunk
+ * sits at a fixed place on the ground. Only the chunk the user stands in is on the board;
+ * recently visited chunks are kept in memory, all others are loaded and saved through
+ * {@link ChunkLoader} as the user walks around.
+ * <p/>
+ * Chunks which have never been visited are empty, except for the very first one of a world
+ * nothing has been saved of yet, which takes over whatever is on the board when the first
+ * location arrives. Later, the board is always one of the stored chunks. A chunk which could
+ * not be loaded is never put on the board, so that it is not saved over; it is requested
+ * again when the user moves next.
+ * <p/>
+ * All methods have to be called on the same thread, the one {@link ChunkLoader} publishes
+ * loaded chunks on.
+ */
+public class World implements ChunkLoader.Callback {
+
+	/**
+	 * Width and height of one cell on the ground, in meters.
+	 */
+	public static final int CELL_WIDTH_M = 10;
+
+	// chunks kept in memory besides the one on the board
+	private static final int CACHE_CAPACITY = 64;
+
+	private final CellCollection mCells;
+	private final ChunkLoader mLoader;
+	private final ChunkCache mCache;
+	private final int mRows;
+	private final int mColumns;
+
+	// chunk on the board, valid if mHasChunk
+	private boolean mHasChunk = false;
+	private long mChunkKey;
+	// whether the chunk on the board may differ from the stored one: it was dirty when entered,
+	// or the board changed since mEntryHash was taken
+	private boolean mChunkDirty;
+	private long mEntryHash;
+
+	// chunk being loaded, the board shows no chunk meanwhile
+	private boolean mPending = false;
+	private long mPendingKey;
+	private boolean mFirstChunk = true;
+
+	// cell user is in, within the current or the pending chunk
+	private int mRow;
+	private int mColumn;
+
+	private OnChunkChangeListener mOnChunkChangeListener;
+
+	public World(CellCollection cells, ChunkLoader loader) {
+		mCells = cells;
+		mLoader = loader;
+		mCache = new ChunkCache(CACHE_CAPACITY, loader);
+		mRows = cells.getRowCount();
+		mColumns = cells.getColumnCount();
+	}
+
+	/**
+	 * Sets listener told whenever another chunk is put on the board.
+	 */
+	public void setOnChunkChangeListener(OnChunkChangeListener l) {
+		mOnChunkChangeListener = l;
+	}
+
+	/**
+	 * Returns key of the chunk at given chunk coordinates. Keys of all chunks are distinct.
+	 *
+	 * @param chunkX Chunk coordinate along the longitude, growing to the east.
+	 * @param chunkY Chunk coordinate along the latitude, growing to the north.
+	 */
+	public static long chunkKey(int chunkX, int chunkY) {
+		return ((long) chunkY << 32) | (chunkX & 0xffffffffL);
+	}
+
+	public static int chunkX(long key) {
+		return (int) key;
+	}
+
+	public static int chunkY(long key) {
+		return (int) (key >> 32);
+	}
+
+	/**
+	 * Returns world x coordinate of given cell of given chunk. World coordinates count cells
+	 * from the equator and the prime meridian, x grows to the east.
+	 *
+	 * @param key       Chunk key.
+	 * @param dimension Size of the chunk.
+	 * @param index     Cell index within the chunk.
+	 */
+	public static int cellX(long key, BoardDimension dimension, int index) {
+		return chunkX(key) * dimension.getColumns() + dimension.column(index);
+	}
+
+	/**
+	 * Returns world y coordinate of given cell of given chunk, y grows to the north.
+	 *
+	 * @see #cellX(long, BoardDimension, int)
+	 */
+	public static int cellY(long key, BoardDimension dimension, int index) {
+		return chunkY(key) * dimension.getRows() + dimension.getRows() - 1 - dimension.row(index);
+	}
+
+	/**
+	 * Returns key of the chunk on the board, or of the chunk being loaded if there is none yet.
+	 *
+	 * @return
+	 */
+	public long getChunkKey() {
+		return mHasChunk ? mChunkKey : mPendingKey;
+	}
+
+	/**
+	 * Returns true if chunk the user is in is on the board. While it is being loaded, or after
+	 * it has failed to load, no cell is selected.
+	 *
+	 * @return
+	 */
+	public boolean isLoaded() {
+		return mHasChunk;
+	}
+
+	/**
+	 * Returns world x coordinate of given longitude, in cells. Cell x lies between the
+	 * coordinates x and x + 1.
+	 */
+	public static double toCellX(double lon) {
+		return lon * 60000 / CELL_WIDTH_M;
+	}
+
+	/**
+	 * Returns world y coordinate of given latitude, in cells.
+	 *
+	 * @see #toCellX(double)
+	 */
+	public static double toCellY(double lat) {
+		return lat * 111111 / CELL_WIDTH_M;
+	}
+
+	/**
+	 * Moves the user to given place, switching chunks when needed.
+	 */
+	public void setLocation(double lat, double lon) {
+		setCell((int) Math.floor(toCellX(lon)), (int) Math.floor(toCellY(lat)));
+	}
+
+	/**
+	 * Moves the user to given world cell, switching chunks when needed. Listeners of the
+	 * board are not notified if the user stays in the same cell.
+	 */
+	public void setCell(int cellX, int cellY) {
+		long key = chunkKey(floorDiv(cellX, mColumns), floorDiv(cellY, mRows));
+		mRow = mRows - 1 - floorMod(cellY, mRows);
+		mColumn = floorMod(cellX, mColumns);
+
+		if (mHasChunk && key == mChunkKey) {
+			select();
+			return;
+		}
+		if (mPending && key == mPendingKey) {
+			return;
+		}
+
+		leave();
+		boolean dirty = mCache.isDirty(key);
+		byte[] values = mCache.remove(key);
+		if (values != null) {
+			enter(key, values, dirty);
+		} else {
+			mPending = true;
+			mPendingKey = key;
+			mCells.setSelectedCell(null);
+			mLoader.load(key, this);
+		}
+	}
+
+	@Override
+	public void onChunkLoaded(long key, byte[] values, boolean worldEmpty) {
+		if (!mPending || key != mPendingKey) {
+			// user has walked on meanwhile, keep the chunk unless a newer copy is around
+			boolean onBoard = mHasChunk && key == mChunkKey;
+			if (values != null && !onBoard && mCache.get(key) == null) {
+				mCache.put(key, values, false);
+			}
+			return;
+		}
+
+		mPending = false;
+		if (values == null && mFirstChunk && worldEmpty) {
+			enter(key, mCells.getValues(new byte[mCells.getCellCount()]), true);
+		} else if (values == null) {
+			enter(key, new byte[mCells.getCellCount()], false);
+		} else {
+			enter(key, values, false);
+		}
+	}
+
+	@Override
+	public void onChunkLoadFailed(long key) {
+		if (mPending && key == mPendingKey) {
+			// no chunk stays on the board, the next location asks for it again
+			mPending = false;
+		}
+	}
+
+	/**
+	 * Saves all changed chunks, including the one on the board.
+	 */
+	public void flush() {
+		if (mHasChunk && (mChunkDirty || mCells.getHash() != mEntryHash)) {
+			mLoader.save(mChunkKey, mCells.getValues(new byte[mCells.getCellCount()]));
+			mChunkDirty = false;
+			mEntryHash = mCells.getHash();
+		}
+		mCache.flush();
+	}
+
+	private void enter(long key, byte[] values, boolean dirty) {
+		mCells.setValues(values);
+		mHasChunk = true;
+		mFirstChunk = false;
+		mChunkKey = key;
+		mChunkDirty = dirty;
+		mEntryHash = mCells.getHash();
+		if (mOnChunkChangeListener != null) {
+			mOnChunkChangeListener.onChunkChanged(key);
+		}
+		select();
+	}
+
+	private void leave() {
+		if (!mHasChunk) {
+			return;
+		}
+		boolean dirty = mChunkDirty || mCells.getHash() != mEntryHash;
+		mCache.put(mChunkKey, mCells.getValues(new byte[mCells.getCellCount()]), dirty);
+		mHasChunk = false;
+	}
+
+	private void select() {
+		Cell cell = mCells.getCell(mRow, mColumn);
+		if (cell != mCells.getSelectedCell()) {
+			mCells.setSelectedCell(cell);
+		}
+	}
+
+	public interface OnChunkChangeListener {
+		/**
+		 * Occurs when given chunk has been put on the board, replacing its cells. Whatever
+		 * refers to the cells of the previous chunk, e.g. moves to undo, no longer applies.
+		 *
+		 * @param key Chunk key, see {@link #chunkKey(int, int)}.
+		 */
+		void onChunkChanged(long key);
+	}
+
+	// Math.floorDiv and Math.floorMod are not available on older platforms.
+
+	private static int floorDiv(int x, int y) {
+		int q = x / y;
+		return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+	}
+
+	private static int floorMod(int x, int y) {
+		return x - floorDiv(x, y) * y;
+	}
+}
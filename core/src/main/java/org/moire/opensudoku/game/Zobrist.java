@@ -0,0 +1,44 @@
+package org.moire.opensudoku.game;
+
+/**
+ * Zobrist keys for hashing {@link CellCollection} state.
+ * <p/>
+ * Keys are derived from the hashed feature with the SplitMix64 finalizer instead of being
+ * looked up in a table of random numbers, so they need no memory, are the same in every
+ * process (hashes can be stored) and do not depend on the number of tile values.
+ */
+final class Zobrist {
+	private static final long CELL_SALT = 0x2545F4914F6CDD1DL;
+	private static final long UNLOCKED_SALT = 0x9E3779B97F4A7C15L;
+	private static final long NEXT_SALT = 0xD1B54A32D192ED03L;
+
+	private Zobrist() {
+	}
+
+	/**
+	 * Returns key of given value in cell at given index, 0 for empty cell.
+	 */
+	static long cellKey(int index, int value) {
+		return value == 0 ? 0 : mix(CELL_SALT ^ ((long) index << 32 | value));
+	}
+
+	/**
+	 * Returns key of given number of unlocked tile sets.
+	 */
+	static long unlockedKey(int unlocked) {
+		return mix(UNLOCKED_SALT ^ unlocked);
+	}
+
+	/**
+	 * Returns key of given value of the next tile, 0 if there is no next tile.
+	 */
+	static long nextKey(int value) {
+		return value == 0 ? 0 : mix(NEXT_SALT ^ value);
+	}
+
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -23,11 +23,10 @@ package org.moire.opensudoku.game.command;
 import java.util.ArrayList;
 import java.util.List;
 
-import android.os.Bundle;
-
 import org.moire.opensudoku.game.Cell;
 import org.moire.opensudoku.game.CellCollection;
 import org.moire.opensudoku.game.CellNote;
+import org.moire.opensudoku.game.StateBundle;
 
 public class ClearAllNotesCommand extends AbstractCellCommand {
 
@@ -39,7 +38,7 @@ public class ClearAllNotesCommand extends AbstractCellCommand {
 
 
 	@Override
-	void saveState(Bundle outState) {
+	void saveState(StateBundle outState) {
 		super.saveState(outState);
 
 		int[] rows = new int[mOldNotes.size()];
@@ -60,7 +59,7 @@ public class ClearAllNotesCommand extends AbstractCellCommand {
 	}
 
 	@Override
-	void restoreState(Bundle inState) {
+	void restoreState(StateBundle inState) {
 		super.restoreState(inState);
 
 		int[] rows = inState.getIntArray("rows");
@@ -78,13 +77,13 @@ public class ClearAllNotesCommand extends AbstractCellCommand {
 		CellCollection cells = getCells();
 
 		mOldNotes.clear();
-		for (int r = 0; r < CellCollection.SUDOKU_SIZE; r++) {
-			for (int c = 0; c < CellCollection.SUDOKU_SIZE; c++) {
+		for (int r = 0; r < cells.getRowCount(); r++) {
+			for (int c = 0; c < cells.getColumnCount(); c++) {
 				Cell cell = cells.getCell(r, c);
 				CellNote note = cell.getNote();
 				if (!note.isEmpty()) {
 					mOldNotes.add(new NoteEntry(r, c, note));
-					cell.setNote(new CellNote());
+					cell.setNote(CellNote.EMPTY);
 				}
 			}
 		}
@@ -0,0 +1,183 @@
+package org.moire.opensudoku.game.command;
+
+import java.util.Stack;
+
+import org.moire.opensudoku.game.BoardSnapshot;
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.StateBundle;
+
+public class CommandStack {
+	private Stack<AbstractCommand> mCommandStack = new Stack<AbstractCommand>();
+	// Board as it was before each command of mCommandStack, null for commands executed without
+	// snapshots (or restored), which are undone one by one.
+	private Stack<BoardSnapshot> mSnapshots = new Stack<BoardSnapshot>();
+	private boolean mSnapshotsEnabled = false;
+	private int mCheckpointCount = 0;
+
+	// TODO: I need cells collection, because I have to call validate on it after some
+	//	commands. CellCollection should be able to validate itself on change.
+	private CellCollection mCells;
+
+	public CommandStack(CellCollection cells) {
+		mCells = cells;
+	}
+
+	public void saveState(StateBundle outState) {
+		outState.putInt("cmdStack.size", mCommandStack.size());
+		for (int i = 0; i < mCommandStack.size(); i++) {
+			AbstractCommand command = mCommandStack.get(i);
+			StateBundle commandState = outState.newBundle();
+			commandState.putString("commandClass", command.getCommandClass());
+			command.saveState(commandState);
+			outState.putBundle("cmdStack." + i, commandState);
+		}
+	}
+
+	public void restoreState(StateBundle inState) {
+		int stackSize = inState.getInt("cmdStack.size");
+		for (int i = 0; i < stackSize; i++) {
+			StateBundle commandState = inState.getBundle("cmdStack." + i);
+			AbstractCommand command = AbstractCommand.newInstance(commandState.getString("commandClass"));
+			command.restoreState(commandState);
+			push(command, null);
+		}
+	}
+
+	public boolean empty() {
+		return mCommandStack.empty();
+	}
+
+	/**
+	 * Enables keeping a {@link BoardSnapshot} of the board before each command executed from now
+	 * on. Undoing such a command puts its snapshot back instead of undoing the commands one by
+	 * one; the board as it was some commands ago is at hand, see {@link #getSnapshot(int)}.
+	 * Snapshots share unchanged rows of the board, each takes a few hundred bytes on a 9x9 board.
+	 * They are not saved by {@link #saveState(StateBundle)}.
+	 *
+	 * @param enabled
+	 */
+	public void setSnapshotsEnabled(boolean enabled) {
+		mSnapshotsEnabled = enabled;
+	}
+
+	public void execute(AbstractCommand command) {
+		BoardSnapshot snapshot = mSnapshotsEnabled ? mCells.snapshot() : null;
+		push(command, snapshot);
+		command.execute();
+	}
+
+	public void undo() {
+		if (!mCommandStack.empty()) {
+			BoardSnapshot snapshot = mSnapshots.peek();
+			AbstractCommand c = pop();
+			if (snapshot != null) {
+				mCells.restore(snapshot);
+			} else {
+				c.undo();
+			}
+			validateCells();
+		}
+	}
+
+	public void setCheckpoint() {
+		if (!mCommandStack.empty()) {
+			AbstractCommand c = mCommandStack.peek();
+			if (!c.isCheckpoint()) {
+				c.setCheckpoint(true);
+				mCheckpointCount++;
+			}
+		}
+	}
+
+	public boolean hasCheckpoint() {
+		return mCheckpointCount > 0;
+	}
+
+	public void undoToCheckpoint() {
+		/*
+		 * I originally planned to just call undo but this way it doesn't need to 
+		 * validateCells() until the run is complete
+		 */
+		// snapshot before the oldest command popped so far which has one, not yet restored;
+		// commands without snapshot are below all those with one
+		BoardSnapshot restore = null;
+		while (!mCommandStack.empty()) {
+			BoardSnapshot snapshot = mSnapshots.peek();
+			AbstractCommand c = pop();
+			if (snapshot != null) {
+				restore = snapshot;
+			} else {
+				if (restore != null) {
+					mCells.restore(restore);
+					restore = null;
+				}
+				c.undo();
+			}
+
+			if (mCommandStack.empty() || mCommandStack.peek().isCheckpoint()) {
+				break;
+			}
+		}
+		if (restore != null) {
+			mCells.restore(restore);
+		}
+		validateCells();
+	}
+
+	/**
+	 * Returns board as it was given number of commands ago, 0 for the current board.
+	 *
+	 * @param commandsAgo
+	 * @return Snapshot, null if the command was executed without snapshots or there were not
+	 * that many commands.
+	 */
+	public BoardSnapshot getSnapshot(int commandsAgo) {
+		if (commandsAgo == 0) {
+			return mCells.snapshot();
+		}
+		if (commandsAgo < 0 || commandsAgo > mSnapshots.size()) {
+			return null;
+		}
+		return mSnapshots.get(mSnapshots.size() - commandsAgo);
+	}
+
+
+	/**
+	 * Forgets all commands, e.g. when the board has been replaced by another one.
+	 */
+	public void clear() {
+		mCommandStack.clear();
+		mSnapshots.clear();
+		mCheckpointCount = 0;
+	}
+
+	public boolean hasSomethingToUndo() {
+		return mCommandStack.size() != 0;
+	}
+
+	private void push(AbstractCommand command, BoardSnapshot snapshot) {
+		if (command instanceof AbstractCellCommand) {
+			((AbstractCellCommand) command).setCells(mCells);
+		}
+		mCommandStack.push(command);
+		mSnapshots.push(snapshot);
+		if (command.isCheckpoint()) {
+			mCheckpointCount++;
+		}
+	}
+
+	private AbstractCommand pop() {
+		AbstractCommand command = mCommandStack.pop();
+		mSnapshots.pop();
+		if (command.isCheckpoint()) {
+			mCheckpointCount--;
+		}
+		return command;
+	}
+
+	private void validateCells() {
+		mCells.validate();
+	}
+
+
+}
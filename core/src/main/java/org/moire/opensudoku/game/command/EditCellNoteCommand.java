@@ -20,9 +20,9 @@
 
 package org.moire.opensudoku.game.command;
 
-import android.os.Bundle;
 import org.moire.opensudoku.game.Cell;
 import org.moire.opensudoku.game.CellNote;
+import org.moire.opensudoku.game.StateBundle;
 
 public class EditCellNoteCommand extends AbstractCellCommand {
 
@@ -42,7 +42,7 @@ public class EditCellNoteCommand extends AbstractCellCommand {
 	}
 
 	@Override
-	void saveState(Bundle outState) {
+	void saveState(StateBundle outState) {
 		super.saveState(outState);
 
 		outState.putInt("cellRow", mCellRow);
@@ -52,7 +52,7 @@ public class EditCellNoteCommand extends AbstractCellCommand {
 	}
 
 	@Override
-	void restoreState(Bundle inState) {
+	void restoreState(StateBundle inState) {
 		super.restoreState(inState);
 
 		mCellRow = inState.getInt("cellRow");
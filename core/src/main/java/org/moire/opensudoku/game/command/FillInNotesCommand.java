@@ -3,11 +3,11 @@ package org.moire.opensudoku.game.command;
 import java.util.ArrayList;
 import java.util.List;
 
-import android.os.Bundle;
 import org.moire.opensudoku.game.Cell;
 import org.moire.opensudoku.game.CellCollection;
 import org.moire.opensudoku.game.CellGroup;
 import org.moire.opensudoku.game.CellNote;
+import org.moire.opensudoku.game.StateBundle;
 
 public class FillInNotesCommand extends AbstractCellCommand {
 
@@ -17,7 +17,7 @@ public class FillInNotesCommand extends AbstractCellCommand {
 	}
 
 	@Override
-	void saveState(Bundle outState) {
+	void saveState(StateBundle outState) {
 		super.saveState(outState);
 
 		int[] rows = new int[mOldNotes.size()];
@@ -38,7 +38,7 @@ public class FillInNotesCommand extends AbstractCellCommand {
 	}
 
 	@Override
-	void restoreState(Bundle inState) {
+	void restoreState(StateBundle inState) {
 		super.restoreState(inState);
 
 		int[] rows = inState.getIntArray("rows");
@@ -56,20 +56,21 @@ public class FillInNotesCommand extends AbstractCellCommand {
 		CellCollection cells = getCells();
 
 		mOldNotes.clear();
-		for (int r = 0; r < CellCollection.SUDOKU_SIZE; r++) {
-			for (int c = 0; c < CellCollection.SUDOKU_SIZE; c++) {
+		for (int r = 0; r < cells.getRowCount(); r++) {
+			for (int c = 0; c < cells.getColumnCount(); c++) {
 				Cell cell = cells.getCell(r, c);
 				mOldNotes.add(new NoteEntry(r, c, cell.getNote()));
-				cell.setNote(new CellNote());
 
 				CellGroup row = cell.getRow();
 				CellGroup column = cell.getColumn();
 				CellGroup sector = cell.getSector();
+				CellNote note = CellNote.EMPTY;
 				for (int i = 1; i <= CellCollection.SUDOKU_SIZE; i++) {
 					if (!row.contains(i) && !column.contains(i) && !sector.contains(i)) {
-						cell.setNote(cell.getNote().addNumber(i));
+						note = note.addNumber(i);
 					}
 				}
+				cell.setNote(note);
 			}
 		}
 	}
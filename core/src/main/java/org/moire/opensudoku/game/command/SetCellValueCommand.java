@@ -20,8 +20,8 @@
 
 package org.moire.opensudoku.game.command;
 
-import android.os.Bundle;
 import org.moire.opensudoku.game.Cell;
+import org.moire.opensudoku.game.StateBundle;
 
 public class SetCellValueCommand extends AbstractCellCommand {
 
@@ -47,7 +47,7 @@ public class SetCellValueCommand extends AbstractCellCommand {
 	}
 
 	@Override
-	void saveState(Bundle outState) {
+	void saveState(StateBundle outState) {
 		super.saveState(outState);
 
 		outState.putInt("cellRow", mCellRow);
@@ -57,7 +57,7 @@ public class SetCellValueCommand extends AbstractCellCommand {
 	}
 
 	@Override
-	void restoreState(Bundle inState) {
+	void restoreState(StateBundle inState) {
 		super.restoreState(inState);
 
 		mCellRow = inState.getInt("cellRow");
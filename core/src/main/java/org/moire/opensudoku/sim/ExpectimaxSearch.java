@@ -0,0 +1,158 @@
+package org.moire.opensudoku.sim;
+
+import java.util.Arrays;
+
+import org.moire.opensudoku.game.BoardDimension;
+import org.moire.opensudoku.game.EvolutionCatalog;
+
+/**
+ * Expectimax search of {@link MoveAdvisor} for one thread. Several searches may share the
+ * transposition table and work on different cells of the same position.
+ */
+class ExpectimaxSearch {
+	private final BoardDimension mDimension;
+	private final TranspositionTable mTable;
+	private final MoveAdvisor mAdvisor;
+	private final MoveEvaluator[] mPlies = new MoveEvaluator[MoveAdvisor.MAX_DEPTH];
+	// catalog the plies are created for
+	private EvolutionCatalog mCatalog;
+	// tiles known to come, the one of each ply up to mQueueCount - 1; later ones are unknown
+	private int[] mQueue;
+	private int mQueueCount;
+
+	private long mNodes;
+	private boolean mStopped;
+
+	ExpectimaxSearch(BoardDimension dimension, TranspositionTable table, MoveAdvisor advisor) {
+		mDimension = dimension;
+		mTable = table;
+		mAdvisor = advisor;
+	}
+
+	/**
+	 * Makes given position the root of the following searches.
+	 */
+	void load(MoveAdvisor.Position position) {
+		if (position.mCatalog != mCatalog) {
+			Arrays.fill(mPlies, null);
+			mCatalog = position.mCatalog;
+		}
+		ply(0).load(position.mValues, position.mUnlocked, position.mRule, position.mWeights);
+		mQueue = position.mQueue;
+		mQueueCount = position.mQueueCount;
+		mStopped = false;
+	}
+
+	boolean isEmpty(int index) {
+		return ply(0).isEmpty(index);
+	}
+
+	/**
+	 * Returns score expected from placing the next tile on given empty cell of the root and
+	 * <code>depth - 1</code> more tiles after it. The search one tile ahead always completes,
+	 * deeper ones give up once {@link MoveAdvisor#shouldStop()}, see {@link #isStopped()}.
+	 */
+	float search(int index, int depth) {
+		float ret = mPlies[0].gain(index, mQueue[0]);
+		if (depth > 1) {
+			ret += expect(1, depth - 1);
+		}
+		return ret;
+	}
+
+	/**
+	 * Returns true if a search has given up since the last {@link #load(MoveAdvisor.Position)},
+	 * its result is not valid then.
+	 */
+	boolean isStopped() {
+		return mStopped;
+	}
+
+	/**
+	 * Returns number of searched positions which were not in the table, and resets it.
+	 */
+	long takeNodes() {
+		long ret = mNodes;
+		mNodes = 0;
+		return ret;
+	}
+
+	/**
+	 * Returns score expected from the next tile placed on the board left by the previous ply.
+	 */
+	private float expect(int ply, int depth) {
+		MoveEvaluator evaluator = ply(ply);
+		evaluator.loadFrom(mPlies[ply - 1]);
+		if (ply < mQueueCount) {
+			// tile of the preview, no chance involved
+			return best(evaluator, ply, mQueue[ply], depth);
+		}
+		float sum = 0;
+		for (int chain = 0; chain < evaluator.getCandidateCount(); chain++) {
+			float score = best(evaluator, ply, evaluator.getCandidate(chain), depth);
+			if (mStopped) {
+				return 0;
+			}
+			sum += (float) evaluator.getCandidateProbability(chain) * score;
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns score expected from the best placement of given tile on the board loaded by
+	 * given ply, 0 for a full board.
+	 */
+	private float best(MoveEvaluator evaluator, int ply, int value, int depth) {
+		long key = TranspositionTable.key(evaluator.getBaseHash(), value, depth,
+				upcomingKey(ply, depth));
+		float ret = mTable.get(key);
+		if (!Float.isNaN(ret)) {
+			return ret;
+		}
+		mNodes++;
+		if (mAdvisor.shouldStop()) {
+			mStopped = true;
+			return 0;
+		}
+
+		ret = 0;
+		for (int index = 0; index < evaluator.getCellCount(); index++) {
+			if (!evaluator.isEmpty(index)) {
+				continue;
+			}
+			float score;
+			if (depth == 1) {
+				// every match rule matches the placed tile with at least one of its 4-neighbours
+				score = evaluator.neighbours(index, value) == 0 ? 0 : evaluator.gain(index, value);
+			} else {
+				score = evaluator.gain(index, value) + expect(ply + 1, depth - 1);
+				if (mStopped) {
+					return 0;
+				}
+			}
+			ret = Math.max(ret, score);
+		}
+		mTable.put(key, ret);
+		return ret;
+	}
+
+	/**
+	 * Returns key of the known tiles placed after given ply within given depth, the result of
+	 * {@link #best(MoveEvaluator, int, int, int)} depends on them; 0 if there are none.
+	 */
+	private long upcomingKey(int ply, int depth) {
+		long key = 0;
+		int end = Math.min(mQueueCount, ply + depth);
+		for (int i = ply + 1; i < end; i++) {
+			key = (key + mQueue[i] + 1) * 0xC2B2AE3D27D4EB4FL;
+		}
+		return key;
+	}
+
+	private MoveEvaluator ply(int ply) {
+		if (mPlies[ply] == null) {
+			mPlies[ply] = new MoveEvaluator(mDimension, mCatalog);
+		}
+		return mPlies[ply];
+	}
+}
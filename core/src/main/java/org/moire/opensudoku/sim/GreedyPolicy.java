@@ -0,0 +1,48 @@
+package org.moire.opensudoku.sim;
+
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.SplitMix64;
+
+class GreedyPolicy implements PlacementPolicy {
+	private MoveEvaluator mEvaluator;
+
+	@Override
+	public int choose(CellCollection cells, SplitMix64 rand) {
+		if (mEvaluator == null) {
+			mEvaluator = new MoveEvaluator(cells.getDimension(), cells.getEvolutionCatalog());
+		}
+		mEvaluator.load(cells);
+		int value = cells.getNext();
+
+		int best = -1;
+		int bestRating = Integer.MIN_VALUE;
+		int ties = 0;
+		for (int index = 0; index < mEvaluator.getCellCount(); index++) {
+			if (!mEvaluator.isEmpty(index)) {
+				continue;
+			}
+			int rating = rate(mEvaluator, index, value);
+			// uniformly among equally rated cells, without collecting them
+			if (rating > bestRating) {
+				best = index;
+				bestRating = rating;
+				ties = 1;
+			} else if (rating == bestRating && rand.nextInt(++ties) == 0) {
+				best = index;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Score first, building towards a match second.
+	 */
+	static int rate(MoveEvaluator evaluator, int index, int value) {
+		int neighbours = evaluator.neighbours(index, value);
+		// every match rule matches the placed tile with at least one of its 4-neighbours
+		if (neighbours == 0) {
+			return 0;
+		}
+		return evaluator.gain(index, value) * 8 + neighbours;
+	}
+}
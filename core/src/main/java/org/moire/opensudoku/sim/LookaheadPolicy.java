@@ -0,0 +1,61 @@
+package org.moire.opensudoku.sim;
+
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.SplitMix64;
+
+class LookaheadPolicy implements PlacementPolicy {
+	private MoveEvaluator mFirst;
+	private MoveEvaluator mSecond;
+	private final int[] mQueue = new int[CellCollection.MAX_LOOKAHEAD];
+
+	@Override
+	public int choose(CellCollection cells, SplitMix64 rand) {
+		if (mFirst == null) {
+			mFirst = new MoveEvaluator(cells.getDimension(), cells.getEvolutionCatalog());
+			mSecond = new MoveEvaluator(cells.getDimension(), cells.getEvolutionCatalog());
+		}
+		mFirst.load(cells);
+		int queued = cells.getNext(mQueue);
+		int value = mQueue[0];
+
+		int best = -1;
+		double bestRating = Double.NEGATIVE_INFINITY;
+		int ties = 0;
+		for (int index = 0; index < mFirst.getCellCount(); index++) {
+			if (!mFirst.isEmpty(index)) {
+				continue;
+			}
+			// rating of this move plus the one of the next move, with the previewed tile if
+			// there is one, else expected from the tile to come
+			double rating = mFirst.gain(index, value) * 8 + mFirst.neighbours(index, value);
+			mSecond.loadFrom(mFirst);
+			if (queued > 1) {
+				rating += bestRating(mSecond, mQueue[1]);
+			} else {
+				for (int chain = 0; chain < mSecond.getCandidateCount(); chain++) {
+					rating += mSecond.getCandidateProbability(chain)
+							* bestRating(mSecond, mSecond.getCandidate(chain));
+				}
+			}
+
+			if (rating > bestRating) {
+				best = index;
+				bestRating = rating;
+				ties = 1;
+			} else if (rating == bestRating && rand.nextInt(++ties) == 0) {
+				best = index;
+			}
+		}
+		return best;
+	}
+
+	private static int bestRating(MoveEvaluator evaluator, int value) {
+		int best = 0;
+		for (int index = 0; index < evaluator.getCellCount(); index++) {
+			if (evaluator.isEmpty(index)) {
+				best = Math.max(best, GreedyPolicy.rate(evaluator, index, value));
+			}
+		}
+		return best;
+	}
+}
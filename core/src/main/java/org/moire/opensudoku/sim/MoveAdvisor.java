@@ -0,0 +1,302 @@
+package org.moire.opensudoku.sim;
+
+import org.moire.opensudoku.game.BoardDimension;
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.Clock;
+import org.moire.opensudoku.game.EvolutionCatalog;
+import org.moire.opensudoku.game.MatchRule;
+import org.moire.opensudoku.game.SpawnWeights;
+
+/**
+ * Ranks empty cells by the score expected from placing the next tile there. The tiles shown
+ * in the preview ({@link CellCollection#getNext(int[])}) follow as they are; tiles after them
+ * are unknown, each of {@link CellCollection#getInitialCandidates()} is weighted by its chance
+ * to come (depth-limited expectimax). Search deepens one tile at a time until time is up; the result of
+ * the deepest completed search is returned. Results of sub-searches are kept in a transposition
+ * table, which also carries over to the search after the next move.
+ * <p/>
+ * With parallelism above 1, empty cells of the position are searched on a work-stealing pool
+ * sharing the table. A search can be cancelled from any thread, e.g. when the searched board
+ * is left; otherwise instance of this class is to be used from one thread at a time.
+ * <p/>
+ * You should explicitly call {@link #shutdown()} when this object is no longer needed.
+ */
+public class MoveAdvisor {
+	/**
+	 * Time budget fitting a single frame of a phone.
+	 */
+	public static final long DEFAULT_BUDGET_MS = 30;
+
+	/**
+	 * Maximum number of tiles the search looks ahead.
+	 */
+	public static final int MAX_DEPTH = 8;
+
+	private static final int TABLE_BITS = 16;
+
+	private final Clock mClock;
+	private final TranspositionTable mTable = new TranspositionTable(TABLE_BITS);
+	private final ExpectimaxSearch mSearch;
+	private final ParallelRootSearch mParallelSearch;
+	private MatchRule mTableRule;
+	private SpawnWeights mTableWeights;
+	private EvolutionCatalog mTableCatalog;
+
+	private long mDeadline;
+	private volatile boolean mCancelled;
+
+	public MoveAdvisor(BoardDimension dimension, Clock clock) {
+		this(dimension, clock, 1);
+	}
+
+	/**
+	 * @param parallelism Number of threads searching, 1 searches on the calling thread only.
+	 *                    Above 1 requires java.util.concurrent.ForkJoinPool, which is available
+	 *                    since Android API level 21.
+	 */
+	public MoveAdvisor(BoardDimension dimension, Clock clock, int parallelism) {
+		mClock = clock;
+		mSearch = new ExpectimaxSearch(dimension, mTable, this);
+		mParallelSearch = parallelism > 1 ? new ParallelRootSearch(dimension, mTable, this, parallelism) : null;
+	}
+
+	/**
+	 * Searches given position until the budget is spent or {@link #MAX_DEPTH} tiles ahead.
+	 *
+	 * @see #advise(Position, long, int)
+	 */
+	public Advice advise(Position position, long budgetMillis) {
+		return advise(position, budgetMillis, MAX_DEPTH);
+	}
+
+	/**
+	 * Searches given position until the budget is spent, the search is cancelled or given
+	 * number of tiles ahead. The search one tile ahead always completes.
+	 *
+	 * @param position     Position to search, must not be full.
+	 * @param budgetMillis Time budget.
+	 * @param maxDepth     Tiles to look ahead at most, 1 to {@link #MAX_DEPTH}.
+	 * @return
+	 */
+	public Advice advise(Position position, long budgetMillis, int maxDepth) {
+		if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+			throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ".");
+		}
+		if (position.mRule != mTableRule || position.mWeights != mTableWeights
+				|| position.mCatalog != mTableCatalog) {
+			// values stored for the other rule, spawn chances or tiles are wrong
+			mTable.clear();
+			mTableRule = position.mRule;
+			mTableWeights = position.mWeights;
+			mTableCatalog = position.mCatalog;
+		}
+		mDeadline = mClock.uptimeMillis() + budgetMillis;
+		mCancelled = false;
+
+		float[] best = null;
+		int depth = 0;
+		long nodes = 0;
+		while (depth < maxDepth) {
+			float[] scores = new float[position.mValues.length];
+			boolean completed = mParallelSearch != null && depth > 0
+					? mParallelSearch.search(position, depth + 1, scores)
+					: searchRoot(position, depth + 1, scores);
+			nodes += mSearch.takeNodes() + (mParallelSearch != null ? mParallelSearch.takeNodes() : 0);
+			if (!completed) {
+				break;
+			}
+			best = scores;
+			depth++;
+			if (shouldStop()) {
+				break;
+			}
+		}
+
+		for (int i = 0; i < best.length; i++) {
+			if (position.mValues[i] != 0) {
+				best[i] = Float.NaN;
+			}
+		}
+		return new Advice(best, depth, nodes);
+	}
+
+	private boolean searchRoot(Position position, int depth, float[] scores) {
+		mSearch.load(position);
+		for (int index = 0; index < scores.length; index++) {
+			if (mSearch.isEmpty(index)) {
+				scores[index] = mSearch.search(index, depth);
+				if (mSearch.isStopped()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Makes the running search, if any, return as soon as possible. It returns the deepest
+	 * search completed so far. May be called from any thread.
+	 */
+	public void cancel() {
+		mCancelled = true;
+	}
+
+	/**
+	 * Returns true if searches have to give up, checked by them between positions.
+	 */
+	boolean shouldStop() {
+		return mCancelled || mClock.uptimeMillis() >= mDeadline;
+	}
+
+	/**
+	 * Forgets stored results, so that the next search starts from scratch. Must not run
+	 * while searching.
+	 */
+	void clearTable() {
+		mTable.clear();
+	}
+
+	/**
+	 * Stops threads of the parallel search.
+	 */
+	public void shutdown() {
+		if (mParallelSearch != null) {
+			mParallelSearch.shutdown();
+		}
+	}
+
+	/**
+	 * Copy of the board state the search needs, it can be taken on GUI thread and searched
+	 * on another one.
+	 */
+	public static class Position {
+		final byte[] mValues;
+		final int mUnlocked;
+		final MatchRule mRule;
+		final SpawnWeights mWeights;
+		final EvolutionCatalog mCatalog;
+		// upcoming tiles, the one placed next first
+		final int[] mQueue;
+		final int mQueueCount;
+		private final long mHash;
+
+		private Position(CellCollection cells) {
+			mValues = cells.getValues(new byte[cells.getCellCount()]);
+			mUnlocked = cells.mNUnlocked;
+			mRule = cells.getMatchRule();
+			mWeights = cells.getSpawnWeights();
+			mCatalog = cells.getEvolutionCatalog();
+			mQueue = new int[CellCollection.MAX_LOOKAHEAD];
+			mQueueCount = cells.getNext(mQueue);
+			mHash = cells.getHash();
+		}
+
+		public static Position of(CellCollection cells) {
+			return new Position(cells);
+		}
+
+		/**
+		 * Returns hash of the board the position was taken from, see {@link CellCollection#getHash()}.
+		 *
+		 * @return
+		 */
+		public long getHash() {
+			return mHash;
+		}
+
+		public boolean isFull() {
+			for (byte value : mValues) {
+				if (value == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Expected scores of placing the next tile on each cell.
+	 */
+	public static class Advice {
+		private final float[] mScores;
+		private final int mDepth;
+		private final long mNodes;
+
+		Advice(float[] scores, int depth, long nodes) {
+			mScores = scores;
+			mDepth = depth;
+			mNodes = nodes;
+		}
+
+		/**
+		 * Returns score expected from placing the next tile on given cell, NaN if the cell
+		 * is not empty.
+		 *
+		 * @param index
+		 * @return
+		 */
+		public float getScore(int index) {
+			return mScores[index];
+		}
+
+		/**
+		 * Returns index of the empty cell with the highest expected score, the first one of
+		 * equally good cells.
+		 *
+		 * @return
+		 */
+		public int getBestIndex() {
+			int ret = -1;
+			for (int i = 0; i < mScores.length; i++) {
+				if (!Float.isNaN(mScores[i]) && (ret == -1 || mScores[i] > mScores[ret])) {
+					ret = i;
+				}
+			}
+			return ret;
+		}
+
+		/**
+		 * Returns expected scores scaled to 0 (worst empty cell) to 1 (best one), NaN for cells
+		 * which are not empty. All empty cells are 0 if they are equally good.
+		 *
+		 * @return
+		 */
+		public float[] getHeatMap() {
+			float min = Float.POSITIVE_INFINITY;
+			float max = Float.NEGATIVE_INFINITY;
+			for (float score : mScores) {
+				if (!Float.isNaN(score)) {
+					min = Math.min(min, score);
+					max = Math.max(max, score);
+				}
+			}
+			float[] ret = new float[mScores.length];
+			for (int i = 0; i < ret.length; i++) {
+				if (Float.isNaN(mScores[i])) {
+					ret[i] = Float.NaN;
+				} else {
+					ret[i] = max == min ? 0 : (mScores[i] - min) / (max - min);
+				}
+			}
+			return ret;
+		}
+
+		/**
+		 * Returns number of tiles the search looked ahead, including the next one.
+		 *
+		 * @return
+		 */
+		public int getDepth() {
+			return mDepth;
+		}
+
+		/**
+		 * Returns number of searched positions not found in the transposition table.
+		 *
+		 * @return
+		 */
+		public long getNodes() {
+			return mNodes;
+		}
+	}
+}
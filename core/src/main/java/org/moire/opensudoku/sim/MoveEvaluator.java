@@ -0,0 +1,135 @@
+package org.moire.opensudoku.sim;
+
+import org.moire.opensudoku.game.BoardDimension;
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.EvolutionCatalog;
+import org.moire.opensudoku.game.MatchRule;
+import org.moire.opensudoku.game.SpawnWeights;
+
+/**
+ * Tries out placements on a scratch copy of a board. After {@link #load(CellCollection)}, each
+ * {@link #gain(int, int)} starts from the loaded board again; restoring it only touches cells
+ * the previous try has changed.
+ */
+class MoveEvaluator {
+	private final CellCollection mScratch;
+	private final byte[] mBase;
+	private final int mColumns;
+	private int mUnlocked;
+	private long mBaseHash;
+
+	MoveEvaluator(BoardDimension dimension, EvolutionCatalog catalog) {
+		mScratch = CellCollection.createEmpty(dimension, catalog);
+		// the scratch board never places its own tiles; the same ones on every scratch board
+		// keep hashes of equal boards equal
+		mScratch.setSeed(0);
+		mScratch.resetNext();
+		mBase = new byte[dimension.getCellCount()];
+		mColumns = dimension.getColumns();
+	}
+
+	static int value(CellCollection cells, int index) {
+		int columns = cells.getColumnCount();
+		return cells.getCell(index / columns, index % columns).getValue();
+	}
+
+	/**
+	 * Makes given board the starting point of the following tries, it must be played with the
+	 * catalog of this evaluator.
+	 */
+	void load(CellCollection cells) {
+		cells.getValues(mBase);
+		load(cells.mNUnlocked, cells.getMatchRule(), cells.getSpawnWeights());
+	}
+
+	/**
+	 * Makes given cell values the starting point of the following tries.
+	 */
+	void load(byte[] values, int unlocked, MatchRule matchRule, SpawnWeights spawnWeights) {
+		System.arraycopy(values, 0, mBase, 0, mBase.length);
+		load(unlocked, matchRule, spawnWeights);
+	}
+
+	/**
+	 * Loads the board as it is after the last {@link #gain(int, int)} of given evaluator.
+	 */
+	void loadFrom(MoveEvaluator other) {
+		other.mScratch.getValues(mBase);
+		load(other.mScratch.mNUnlocked, other.mScratch.getMatchRule(),
+				other.mScratch.getSpawnWeights());
+	}
+
+	private void load(int unlocked, MatchRule matchRule, SpawnWeights spawnWeights) {
+		mUnlocked = unlocked;
+		mScratch.setMatchRule(matchRule);
+		if (mScratch.getSpawnWeights() != spawnWeights) {
+			// setting them again would rebuild the spawn sampler on every load
+			mScratch.setSpawnWeights(spawnWeights);
+		}
+		mScratch.setValues(mBase);
+		mScratch.mNUnlocked = unlocked;
+		mBaseHash = mScratch.getHash();
+	}
+
+	/**
+	 * Returns score gained by placing given tile on given cell of the loaded board.
+	 */
+	int gain(int index, int value) {
+		mScratch.setValues(mBase);
+		mScratch.mNUnlocked = mUnlocked;
+		int before = mScratch.getScore();
+		mScratch.getCell(index / mColumns, index % mColumns).setValue(value);
+		mScratch.consumeMatchingLines(mScratch.getCell(index / mColumns, index % mColumns));
+		return mScratch.getScore() - before;
+	}
+
+	/**
+	 * Returns number of 4-neighbours of given cell of the loaded board holding given value.
+	 */
+	int neighbours(int index, int value) {
+		int row = index / mColumns;
+		int column = index % mColumns;
+		int count = 0;
+		if (column > 0 && mBase[index - 1] == value) count++;
+		if (column < mColumns - 1 && mBase[index + 1] == value) count++;
+		if (row > 0 && mBase[index - mColumns] == value) count++;
+		if (index + mColumns < mBase.length && mBase[index + mColumns] == value) count++;
+		return count;
+	}
+
+	/**
+	 * Returns number of tiles which may come after the loaded board, see
+	 * {@link CellCollection#getCandidateCount()}.
+	 */
+	int getCandidateCount() {
+		return mUnlocked;
+	}
+
+	int getCandidate(int chain) {
+		return mScratch.getCandidate(chain);
+	}
+
+	/**
+	 * Returns chance of given tile to come after the loaded board, see
+	 * {@link CellCollection#getCandidateProbability(int)}.
+	 */
+	double getCandidateProbability(int chain) {
+		mScratch.mNUnlocked = mUnlocked;
+		return mScratch.getCandidateProbability(chain);
+	}
+
+	/**
+	 * Returns Zobrist hash of the loaded board, see {@link CellCollection#getHash()}.
+	 */
+	long getBaseHash() {
+		return mBaseHash;
+	}
+
+	boolean isEmpty(int index) {
+		return mBase[index] == 0;
+	}
+
+	int getCellCount() {
+		return mBase.length;
+	}
+}
@@ -0,0 +1,91 @@
+package org.moire.opensudoku.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.moire.opensudoku.game.BoardDimension;
+
+/**
+ * Splits the empty cells of the root among the threads of a work-stealing pool, each thread
+ * searching with its own {@link ExpectimaxSearch} over the shared transposition table.
+ * <p/>
+ * Kept apart from {@link MoveAdvisor}, so that java.util.concurrent.ForkJoinPool (Android API
+ * level 21) is loaded only when a parallel search is asked for.
+ */
+class ParallelRootSearch {
+	private final ForkJoinPool mPool;
+	private final ThreadLocal<ExpectimaxSearch> mSearches;
+	private final AtomicLong mNodes = new AtomicLong();
+
+	ParallelRootSearch(final BoardDimension dimension, final TranspositionTable table,
+			final MoveAdvisor advisor, int parallelism) {
+		mPool = new ForkJoinPool(parallelism);
+		mSearches = new ThreadLocal<ExpectimaxSearch>() {
+			@Override
+			protected ExpectimaxSearch initialValue() {
+				return new ExpectimaxSearch(dimension, table, advisor);
+			}
+		};
+	}
+
+	/**
+	 * Searches every empty cell of given position, see {@link ExpectimaxSearch#search(int, int)}.
+	 *
+	 * @param scores Receives score of each empty cell.
+	 * @return False if some search gave up, scores are not valid then.
+	 */
+	boolean search(MoveAdvisor.Position position, int depth, float[] scores) {
+		return mPool.invoke(new Cells(position, depth, scores, 0, scores.length));
+	}
+
+	/**
+	 * Returns number of searched positions which were not in the table, and resets it.
+	 */
+	long takeNodes() {
+		return mNodes.getAndSet(0);
+	}
+
+	void shutdown() {
+		mPool.shutdown();
+	}
+
+	private class Cells extends RecursiveTask<Boolean> {
+		private static final long serialVersionUID = 1L;
+
+		private final MoveAdvisor.Position mPosition;
+		private final int mDepth;
+		private final float[] mScores;
+		private final int mFrom;
+		private final int mTo;
+
+		Cells(MoveAdvisor.Position position, int depth, float[] scores, int from, int to) {
+			mPosition = position;
+			mDepth = depth;
+			mScores = scores;
+			mFrom = from;
+			mTo = to;
+		}
+
+		@Override
+		protected Boolean compute() {
+			if (mTo - mFrom == 1) {
+				if (mPosition.mValues[mFrom] != 0) {
+					return true;
+				}
+				// searching a single cell takes long enough to be worth a task of its own
+				ExpectimaxSearch search = mSearches.get();
+				search.load(mPosition);
+				mScores[mFrom] = search.search(mFrom, mDepth);
+				mNodes.addAndGet(search.takeNodes());
+				return !search.isStopped();
+			}
+
+			int middle = (mFrom + mTo) >>> 1;
+			Cells left = new Cells(mPosition, mDepth, mScores, mFrom, middle);
+			left.fork();
+			boolean right = new Cells(mPosition, mDepth, mScores, middle, mTo).compute();
+			return left.join() & right;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.moire.opensudoku.sim;
+
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.SplitMix64;
+
+/**
+ * Decides where the next tile goes. Instances may keep scratch state, so each thread of the
+ * simulation uses its own, see {@link Policy#create()}.
+ */
+public interface PlacementPolicy {
+
+	/**
+	 * Returns index of the empty cell to place the next tile on.
+	 *
+	 * @param cells Board with at least one empty cell, must not be changed.
+	 * @param rand  Generator for decisions of the policy, independent of the tile generator.
+	 */
+	int choose(CellCollection cells, SplitMix64 rand);
+
+	enum Policy {
+		/**
+		 * Any empty cell.
+		 */
+		RANDOM {
+			@Override
+			public PlacementPolicy create() {
+				return new RandomPolicy();
+			}
+		},
+		/**
+		 * Cell scoring most right away, next to most tiles of the same value on a tie.
+		 */
+		GREEDY {
+			@Override
+			public PlacementPolicy create() {
+				return new GreedyPolicy();
+			}
+		},
+		/**
+		 * Like greedy, adding the best score expected from the tile after, whichever it is.
+		 */
+		LOOKAHEAD {
+			@Override
+			public PlacementPolicy create() {
+				return new LookaheadPolicy();
+			}
+		};
+
+		public abstract PlacementPolicy create();
+	}
+}
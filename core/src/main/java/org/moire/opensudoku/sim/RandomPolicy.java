@@ -0,0 +1,28 @@
+package org.moire.opensudoku.sim;
+
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.SplitMix64;
+
+class RandomPolicy implements PlacementPolicy {
+	// random cells tried before counting empty cells, enough while the board is mostly empty
+	private static final int TRIES = 4;
+
+	@Override
+	public int choose(CellCollection cells, SplitMix64 rand) {
+		int count = cells.getCellCount();
+		for (int i = 0; i < TRIES; i++) {
+			int index = rand.nextInt(count);
+			if (MoveEvaluator.value(cells, index) == 0) {
+				return index;
+			}
+		}
+
+		int n = rand.nextInt(count - cells.getFilledCount());
+		for (int index = 0; index < count; index++) {
+			if (MoveEvaluator.value(cells, index) == 0 && n-- == 0) {
+				return index;
+			}
+		}
+		throw new IllegalStateException("Board has no empty cell.");
+	}
+}
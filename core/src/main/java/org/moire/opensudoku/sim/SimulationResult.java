@@ -0,0 +1,165 @@
+package org.moire.opensudoku.sim;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.moire.opensudoku.game.EvolutionCatalog;
+
+/**
+ * Statistics of a batch of simulated games. Results of batches played on different threads
+ * are combined with {@link #merge(SimulationResult)}.
+ */
+public class SimulationResult {
+	private int mGames;
+	private int mCappedGames;
+	private long mMoves;
+	private int[] mScores;
+	private int[] mLengths;
+	private int[] mTiers = new int[EvolutionCatalog.MAX_VALUE + 1];
+	private long mNanos;
+
+	SimulationResult(int capacity) {
+		mScores = new int[capacity];
+		mLengths = new int[capacity];
+	}
+
+	void add(int score, int moves, int highestValue, boolean capped) {
+		if (mGames == mScores.length) {
+			mScores = copyOf(mScores, mGames * 2 + 1);
+			mLengths = copyOf(mLengths, mGames * 2 + 1);
+		}
+		mScores[mGames] = score;
+		mLengths[mGames] = moves;
+		mGames++;
+		mMoves += moves;
+		mTiers[highestValue]++;
+		if (capped) {
+			mCappedGames++;
+		}
+	}
+
+	SimulationResult merge(SimulationResult other) {
+		SimulationResult ret = new SimulationResult(mGames + other.mGames);
+		System.arraycopy(mScores, 0, ret.mScores, 0, mGames);
+		System.arraycopy(other.mScores, 0, ret.mScores, mGames, other.mGames);
+		System.arraycopy(mLengths, 0, ret.mLengths, 0, mGames);
+		System.arraycopy(other.mLengths, 0, ret.mLengths, mGames, other.mGames);
+		ret.mGames = mGames + other.mGames;
+		ret.mCappedGames = mCappedGames + other.mCappedGames;
+		ret.mMoves = mMoves + other.mMoves;
+		for (int i = 0; i < mTiers.length; i++) {
+			ret.mTiers[i] = mTiers[i] + other.mTiers[i];
+		}
+		return ret;
+	}
+
+	void setNanos(long nanos) {
+		mNanos = nanos;
+	}
+
+	public int getGames() {
+		return mGames;
+	}
+
+	/**
+	 * Returns number of games stopped by the move limit before the board filled up.
+	 *
+	 * @return
+	 */
+	public int getCappedGames() {
+		return mCappedGames;
+	}
+
+	public long getMoves() {
+		return mMoves;
+	}
+
+	/**
+	 * Returns moves played per second of wall clock time, over all threads.
+	 *
+	 * @return
+	 */
+	public double getMovesPerSecond() {
+		return mNanos == 0 ? 0 : mMoves * 1e9 / mNanos;
+	}
+
+	/**
+	 * Returns score below which given percentage of the games ended.
+	 *
+	 * @param percentile 0 to 100.
+	 * @return
+	 */
+	public int getScore(double percentile) {
+		return percentile(mScores, percentile);
+	}
+
+	public double getMeanScore() {
+		return mean(mScores);
+	}
+
+	/**
+	 * Returns game length in moves below which given percentage of the games ended.
+	 *
+	 * @param percentile 0 to 100.
+	 * @return
+	 */
+	public int getLength(double percentile) {
+		return percentile(mLengths, percentile);
+	}
+
+	public double getMeanLength() {
+		return mean(mLengths);
+	}
+
+	/**
+	 * Returns number of games in which given value was the highest tier reached.
+	 *
+	 * @param value
+	 * @return
+	 */
+	public int getTierCount(int value) {
+		return mTiers[value];
+	}
+
+	private int percentile(int[] values, double percentile) {
+		if (mGames == 0) {
+			return 0;
+		}
+		int[] sorted = copyOf(values, mGames);
+		Arrays.sort(sorted);
+		int i = (int) Math.ceil(percentile / 100 * mGames) - 1;
+		return sorted[Math.max(0, Math.min(mGames - 1, i))];
+	}
+
+	private double mean(int[] values) {
+		long sum = 0;
+		for (int i = 0; i < mGames; i++) {
+			sum += values[i];
+		}
+		return mGames == 0 ? 0 : (double) sum / mGames;
+	}
+
+	private static int[] copyOf(int[] values, int length) {
+		int[] ret = new int[length];
+		System.arraycopy(values, 0, ret, 0, Math.min(length, values.length));
+		return ret;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.US, "games %d (%d capped), moves %d, %.0f moves/s%n",
+				mGames, mCappedGames, mMoves, getMovesPerSecond()));
+		sb.append(String.format(Locale.US, "score  mean %.1f  p10 %d  p50 %d  p90 %d  p99 %d  max %d%n",
+				getMeanScore(), getScore(10), getScore(50), getScore(90), getScore(99), getScore(100)));
+		sb.append(String.format(Locale.US, "length mean %.1f  p10 %d  p50 %d  p90 %d  p99 %d  max %d%n",
+				getMeanLength(), getLength(10), getLength(50), getLength(90), getLength(99), getLength(100)));
+		sb.append("max tier");
+		for (int i = 0; i < mTiers.length; i++) {
+			if (mTiers[i] > 0) {
+				sb.append(String.format(Locale.US, "  %d: %d", i, mTiers[i]));
+			}
+		}
+		return sb.append(String.format("%n")).toString();
+	}
+}
@@ -0,0 +1,164 @@
+package org.moire.opensudoku.sim;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.moire.opensudoku.game.BoardDimension;
+import org.moire.opensudoku.game.Cell;
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.SpawnWeights;
+import org.moire.opensudoku.game.SplitMix64;
+
+/**
+ * Plays games without any device, to tune the balance of the game. Games are split among the
+ * threads of a fork/join pool; every game has its own seed derived from the seed of the run,
+ * so a run is reproducible whatever the number of threads.
+ */
+public class Simulator {
+	public static final int DEFAULT_MAX_MOVES = 10000;
+
+	// games played by one task without splitting it further
+	private static final int BATCH = 16;
+
+	private final PlacementPolicy.Policy mPolicy;
+	private final BoardDimension mDimension;
+	private final int mMaxMoves;
+	private SpawnWeights mSpawnWeights = SpawnWeights.UNIFORM;
+
+	public Simulator(PlacementPolicy.Policy policy, BoardDimension dimension, int maxMoves) {
+		mPolicy = policy;
+		mDimension = dimension;
+		mMaxMoves = maxMoves;
+	}
+
+	/**
+	 * Sets chances of the tiles to come in the games played, see
+	 * {@link CellCollection#setSpawnWeights(SpawnWeights)}.
+	 *
+	 * @param spawnWeights
+	 */
+	public void setSpawnWeights(SpawnWeights spawnWeights) {
+		mSpawnWeights = spawnWeights;
+	}
+
+	/**
+	 * Plays given number of games on given number of threads.
+	 *
+	 * @param games       Number of games.
+	 * @param seed        Seed of the run, game <code>i</code> is seeded by {@link #gameSeed(long, int)}.
+	 * @param parallelism Number of threads.
+	 * @return
+	 */
+	public SimulationResult run(int games, long seed, int parallelism) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			long start = System.nanoTime();
+			SimulationResult ret = pool.invoke(new Games(seed, 0, games));
+			ret.setNanos(System.nanoTime() - start);
+			return ret;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Plays a single game until the board fills up or the move limit is reached.
+	 *
+	 * @return Board at the end of the game.
+	 */
+	public CellCollection play(long gameSeed) {
+		return play(gameSeed, mPolicy.create(), null);
+	}
+
+	private CellCollection play(long gameSeed, PlacementPolicy policy, SimulationResult result) {
+		CellCollection cells = CellCollection.createEmpty(mDimension);
+		cells.setSpawnWeights(mSpawnWeights);
+		cells.setSeed(gameSeed);
+		cells.resetNext();
+		// policy decisions draw from their own stream, so that they do not shift the tiles
+		SplitMix64 rand = new SplitMix64(gameSeed).split();
+
+		int columns = mDimension.getColumns();
+		int count = mDimension.getCellCount();
+		int moves = 0;
+		while (cells.getFilledCount() < count && moves < mMaxMoves) {
+			int index = policy.choose(cells, rand);
+			Cell cell = cells.getCell(index / columns, index % columns);
+			cell.setValue(cells.popNext());
+			cells.consumeMatchingLines(cell);
+			moves++;
+		}
+
+		if (result != null) {
+			result.add(cells.getScore(), moves, cells.getHighestValue(), cells.getFilledCount() < count);
+		}
+		return cells;
+	}
+
+	/**
+	 * Returns seed of given game of a run: the stream of the run seed jumped to the game, so
+	 * any thread finds the seed of any game without playing the games before it.
+	 *
+	 * @param seed
+	 * @param game
+	 * @return
+	 */
+	public static long gameSeed(long seed, int game) {
+		SplitMix64 run = new SplitMix64(seed);
+		run.jump(game);
+		return run.nextLong();
+	}
+
+	private class Games extends RecursiveTask<SimulationResult> {
+		private static final long serialVersionUID = 1L;
+
+		private final long mSeed;
+		private final int mFrom;
+		private final int mTo;
+
+		Games(long seed, int from, int to) {
+			mSeed = seed;
+			mFrom = from;
+			mTo = to;
+		}
+
+		@Override
+		protected SimulationResult compute() {
+			if (mTo - mFrom <= BATCH) {
+				PlacementPolicy policy = mPolicy.create();
+				SimulationResult ret = new SimulationResult(mTo - mFrom);
+				for (int i = mFrom; i < mTo; i++) {
+					play(gameSeed(mSeed, i), policy, ret);
+				}
+				return ret;
+			}
+
+			int middle = (mFrom + mTo) >>> 1;
+			Games left = new Games(mSeed, mFrom, middle);
+			left.fork();
+			SimulationResult right = new Games(mSeed, middle, mTo).compute();
+			return left.join().merge(right);
+		}
+	}
+
+	/**
+	 * Usage: Simulator [policy] [games] [seed] [threads] [spawn ratio]
+	 * <p/>
+	 * With spawn ratio each tile chain is that many times as likely as the one before, see
+	 * {@link SpawnWeights.Geometric}; otherwise all are equally likely.
+	 */
+	public static void main(String[] args) {
+		PlacementPolicy.Policy policy = args.length > 0
+				? PlacementPolicy.Policy.valueOf(args[0].toUpperCase()) : PlacementPolicy.Policy.GREEDY;
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		Simulator simulator = new Simulator(policy, BoardDimension.DEFAULT, DEFAULT_MAX_MOVES);
+		if (args.length > 4) {
+			simulator.setSpawnWeights(new SpawnWeights.Geometric(Double.parseDouble(args[4])));
+		}
+		System.out.println(policy + " on " + threads + " threads");
+		System.out.print(simulator.run(games, seed, threads));
+	}
+}
@@ -0,0 +1,66 @@
+package org.moire.opensudoku.sim;
+
+/**
+ * Fixed size hash table of search results keyed by 64-bit Zobrist keys. A new entry replaces
+ * whatever was stored in its slot, so the table never grows and lookups take constant time.
+ * <p/>
+ * Threads may share the table without locking. Each slot stores the value next to the key
+ * XOR-ed with the value; a slot written by two threads at once, or read while being written,
+ * no longer passes the check and is taken as empty. Writes of other threads need not be seen
+ * at all, which only costs a search that could have been avoided.
+ */
+class TranspositionTable {
+	private final long[] mChecks;
+	private final long[] mValues;
+	private final int mMask;
+
+	/**
+	 * @param bits Table holds 2^bits entries.
+	 */
+	TranspositionTable(int bits) {
+		mChecks = new long[1 << bits];
+		mValues = new long[1 << bits];
+		mMask = (1 << bits) - 1;
+	}
+
+	/**
+	 * Returns key of a search result, the searched board is identified by its hash.
+	 *
+	 * @param upcoming Key of the tiles known to come after the searched one, 0 if none.
+	 */
+	static long key(long boardHash, int value, int depth, long upcoming) {
+		long key = boardHash ^ (value * 0x9E3779B97F4A7C15L) ^ (depth * 0xC2B2AE3D27D4EB4FL)
+				^ (upcoming * 0x165667B19E3779F9L);
+		// 0 marks an empty slot
+		return key == 0 ? 1 : key;
+	}
+
+	/**
+	 * Returns stored value, NaN if there is none.
+	 */
+	float get(long key) {
+		int slot = (int) (key ^ (key >>> 32)) & mMask;
+		long value = mValues[slot];
+		if ((mChecks[slot] ^ value) != key) {
+			return Float.NaN;
+		}
+		return Float.intBitsToFloat((int) value);
+	}
+
+	void put(long key, float value) {
+		int slot = (int) (key ^ (key >>> 32)) & mMask;
+		long bits = Float.floatToRawIntBits(value) & 0xFFFFFFFFL;
+		mValues[slot] = bits;
+		mChecks[slot] = key ^ bits;
+	}
+
+	/**
+	 * Empties the table. Must not run while other threads use it.
+	 */
+	void clear() {
+		for (int i = 0; i < mChecks.length; i++) {
+			mChecks[i] = 0;
+			mValues[i] = 0;
+		}
+	}
+}
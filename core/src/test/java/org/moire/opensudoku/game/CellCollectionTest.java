@@ -0,0 +1,475 @@
+package org.moire.opensudoku.game;
+
+import junit.framework.TestCase;
+
+/**
+ * Created by Jack on 22/06/2017.
+ */
+public class CellCollectionTest extends TestCase {
+    public void testSerialiseUnserialise() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        assertEquals(cells.getCell(0,0).getValue(),0);
+        assertEquals(cells.getCell(0,1).getValue(),0);
+        cells.getCell(0,0).setValue(1);
+        // Seralise
+        String tmp = cells.serialize();
+        cells.getCell(0,0).setValue(2);
+        // Unserialise
+        CellCollection cells2 = CellCollection.deserialize(tmp);
+        assertEquals(cells2.getCell(0,0).getValue(),1);
+        assertEquals(cells2.getCell(0,1).getValue(),0);
+    }
+
+    public void testConsumeMatchingLines1() throws Exception {
+
+        // Set up
+        CellCollection cells = CellCollection.createEmpty();
+
+        cells.getCell(1,1).setValue(1);
+        cells.getCell(2,1).setValue(1);
+        cells.getCell(3,1).setValue(1);
+
+        cells.consumeMatchingLines(cells.getCell(1,1));
+
+        assertEquals(cells.getCell(0,1).getValue(),0);
+        assertEquals(cells.getCell(0,2).getValue(),0);
+        assertEquals(cells.getCell(0,3).getValue(),0);
+
+        assertEquals(cells.getCell(1,0).getValue(),0);
+        assertEquals(cells.getCell(2,0).getValue(),0);
+        assertEquals(cells.getCell(3,0).getValue(),0);
+
+        //assertEquals(cells.getCell(2,1).getValue(),9);
+        //assertEquals(cells.getCell(3,1).getValue(),9);
+        //assertEquals(cells.getCell(1,1).getValue(),9);
+
+    }
+
+    public void testConsumeMatchingLines2() throws Exception {
+
+        // Set up
+        CellCollection cells = CellCollection.createEmpty();
+
+        cells.getCell(0,0).setValue(1);
+
+        cells.consumeMatchingLines(cells.getCell(0,0));
+
+        assertEquals(cells.getCell(0,0).getValue(),1);
+
+        assertEquals(cells.getCell(1,0).getValue(),0);
+        assertEquals(cells.getCell(0,1).getValue(),0);
+
+    }
+
+    public void testConsumeMatchingLines3() throws Exception {
+
+        // Set up
+        CellCollection cells = CellCollection.createEmpty();
+
+        cells.getCell(0,0).setValue(1);
+        cells.getCell(1,0).setValue(1);
+        cells.getCell(2,0).setValue(1);
+
+        cells.consumeMatchingLines(cells.getCell(2,0));
+
+        //assertEquals(cells.getCell(0,0).getValue(),9);
+        //assertEquals(cells.getCell(1,0).getValue(),9);
+        //assertEquals(cells.getCell(2,0).getValue(),9);
+
+        assertEquals(cells.getCell(3,0).getValue(),0);
+
+    }
+
+    public void testCellViews() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+
+        Cell cell = cells.getCell(4,7);
+        assertSame(cell, cells.getCell(4,7));
+        assertEquals(cell.getRowIndex(),4);
+        assertEquals(cell.getColumnIndex(),7);
+
+        cell.setValue(2);
+        cell.setEditable(false);
+        CellCollection cells2 = CellCollection.deserialize(cells.serialize());
+        assertEquals(cells2.getCell(4,7).getValue(),2);
+        assertFalse(cells2.getCell(4,7).isEditable());
+        assertTrue(cells2.getCell(4,6).isEditable());
+    }
+
+    public void testNotes() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+
+        CellNote note = CellNote.EMPTY.addNumber(1).addNumber(9);
+        assertSame(note, CellNote.fromMask(0x101));
+        assertSame(CellNote.EMPTY, note.toggleNumber(1).removeNumber(9));
+
+        cells.getCell(2,2).setNote(note);
+        CellCollection cells2 = CellCollection.deserialize(cells.serialize());
+        assertSame(note, cells2.getCell(2,2).getNote());
+        assertEquals(note.serialize(),"1,9,");
+    }
+
+    public void testConsumeMatchingLinesCascade() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+
+        cells.getCell(0,0).setValue(2);
+        cells.getCell(0,1).setValue(2);
+        cells.getCell(1,2).setValue(1);
+        cells.getCell(2,2).setValue(1);
+        cells.getCell(0,2).setValue(1);
+
+        cells.consumeMatchingLines(cells.getCell(0,2));
+
+        // three 1s evolve into 2, which completes the row of 2s and evolves again
+        assertEquals(cells.getCell(0,2).getValue(),3);
+        assertEquals(cells.getCell(0,0).getValue(),0);
+        assertEquals(cells.getCell(0,1).getValue(),0);
+        assertEquals(cells.getCell(1,2).getValue(),0);
+        assertEquals(cells.getCell(2,2).getValue(),0);
+        assertEquals(cells.getScore(),90);
+    }
+
+    public void testRunLengths() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+
+        cells.getCell(4,2).setValue(1);
+        cells.getCell(4,4).setValue(1);
+        assertEquals(cells.getRunLengthH(4,2),1);
+
+        // filling the gap joins both runs
+        cells.getCell(4,3).setValue(1);
+        assertEquals(cells.getRunLengthH(4,2),3);
+        assertEquals(cells.getRunLengthH(4,4),3);
+        assertEquals(cells.getRunLengthV(4,3),1);
+
+        // replacing the middle splits them again
+        cells.getCell(4,3).setValue(2);
+        assertEquals(cells.getRunLengthH(4,2),1);
+        assertEquals(cells.getRunLengthH(4,3),1);
+        assertEquals(cells.getRunLengthH(4,5),0);
+    }
+
+    public void testShapeMatchRule() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        cells.setMatchRule(MatchRule.SHAPES);
+
+        // T shape, placed tile at the bottom of its stem
+        cells.getCell(0,0).setValue(1);
+        cells.getCell(0,1).setValue(1);
+        cells.getCell(0,2).setValue(1);
+        cells.getCell(1,1).setValue(1);
+        cells.getCell(2,1).setValue(1);
+
+        cells.consumeMatchingLines(cells.getCell(2,1));
+
+        assertEquals(cells.getCell(2,1).getValue(),2);
+        assertEquals(cells.getCell(0,0).getValue(),0);
+        assertEquals(cells.getCell(0,2).getValue(),0);
+        assertEquals(cells.getScore(),50);
+    }
+
+    public void testGroupMatchRule() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        cells.setMatchRule(MatchRule.GROUPS);
+
+        // bent cluster, no three in a line
+        cells.getCell(3,3).setValue(1);
+        cells.getCell(3,4).setValue(1);
+        cells.getCell(4,4).setValue(1);
+
+        cells.consumeMatchingLines(cells.getCell(4,4));
+
+        assertEquals(cells.getCell(4,4).getValue(),2);
+        assertEquals(cells.getCell(3,3).getValue(),0);
+        assertEquals(cells.getCell(3,4).getValue(),0);
+        assertEquals(cells.getScore(),30);
+    }
+
+    public void testMatchSplitsCluster() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+
+        // a line with two legs, the match takes the line only
+        cells.getCell(0,0).setValue(1);
+        cells.getCell(0,1).setValue(1);
+        cells.getCell(0,2).setValue(1);
+        cells.getCell(1,0).setValue(1);
+        cells.getCell(2,0).setValue(1);
+        cells.getCell(1,2).setValue(1);
+        assertEquals(cells.getClusters().size(0),6);
+
+        cells.consumeMatchingLines(cells.getCell(0,1));
+
+        assertEquals(cells.getCell(0,1).getValue(),2);
+        assertEquals(cells.getClusters().size(1),1);
+        assertEquals(cells.getClusters().size(0),0);
+        assertEquals(cells.getClusters().size(9),2);
+        assertEquals(cells.getClusters().size(18),2);
+        assertEquals(cells.getClusters().size(11),1);
+        int[] members = new int[CellCollection.CELL_COUNT];
+        assertEquals(cells.getClusters().collect(9,members),2);
+        assertEquals(members[1],18);
+    }
+
+    public void testValueCounts() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        assertTrue(cells.isEmpty());
+        assertEquals(cells.getHighestValue(),0);
+
+        cells.getCell(0,0).setValue(2);
+        cells.getCell(5,5).setValue(7);
+        cells.getCell(8,8).setValue(2);
+        assertFalse(cells.isEmpty());
+        assertEquals(cells.getFilledCount(),3);
+        assertEquals(cells.getValueCount(2),2);
+        assertEquals(cells.getValueCount(0),CellCollection.CELL_COUNT - 3);
+        assertEquals(cells.getHighestValue(),7);
+
+        // removing the highest tile drops back to the next one present
+        cells.getCell(5,5).setValue(0);
+        assertEquals(cells.getFilledCount(),2);
+        assertEquals(cells.getHighestValue(),2);
+
+        int[] counts = cells.getValuesUseCount(null);
+        assertEquals(counts[2],2);
+        assertSame(counts,cells.getValuesUseCount(counts));
+    }
+
+    public void testGameOutcome() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        assertEquals(GameOutcome.evaluate(cells,1),GameOutcome.OPEN);
+
+        // a gap in the middle of a row completes a line
+        cells.getCell(2,3).setValue(1);
+        cells.getCell(2,5).setValue(1);
+        assertEquals(GameOutcome.evaluate(cells,1),GameOutcome.CASCADE_AVAILABLE);
+        assertEquals(GameOutcome.evaluate(cells,2),GameOutcome.OPEN);
+
+        // diagonal neighbours only form a group
+        cells.getCell(2,5).setValue(0);
+        cells.getCell(3,4).setValue(1);
+        assertEquals(GameOutcome.evaluate(cells,1),GameOutcome.OPEN);
+        cells.setMatchRule(MatchRule.GROUPS);
+        assertEquals(GameOutcome.evaluate(cells,1),GameOutcome.CASCADE_AVAILABLE);
+
+        for (int i = 0; i < CellCollection.CELL_COUNT; i++) {
+            cells.getCell(i / CellCollection.SUDOKU_SIZE, i % CellCollection.SUDOKU_SIZE).setValue(4 + i % 2);
+        }
+        assertEquals(GameOutcome.evaluate(cells,1),GameOutcome.BOARD_FULL);
+    }
+
+    public void testHash() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        CellCollection cells2 = CellCollection.createEmpty();
+        long empty = cells.getHash();
+        assertEquals(cells2.getHash(),empty);
+
+        // order of changes does not matter
+        cells.getCell(0,0).setValue(1);
+        cells.getCell(4,7).setValue(5);
+        cells2.getCell(4,7).setValue(2);
+        cells2.getCell(0,0).setValue(1);
+        assertFalse(cells2.getHash() == cells.getHash());
+        cells2.getCell(4,7).setValue(5);
+        assertEquals(cells2.getHash(),cells.getHash());
+
+        CellCollection restored = CellCollection.deserialize(cells.serialize());
+        restored.fillNext();
+        assertEquals(restored.getHash(),cells.getHash());
+
+        cells.mNUnlocked = 2;
+        assertFalse(restored.getHash() == cells.getHash());
+
+        cells.getCell(0,0).setValue(0);
+        cells.getCell(4,7).setValue(0);
+        cells.mNUnlocked = 1;
+        assertEquals(cells.getHash(),empty);
+    }
+
+    public void testBoardDimension() throws Exception {
+        CellCollection cells = CellCollection.createEmpty(new BoardDimension(4,70));
+        assertEquals(cells.getCellCount(),280);
+
+        // run crossing the 64th column
+        cells.getCell(3,63).setValue(1);
+        cells.getCell(3,64).setValue(1);
+        assertEquals(cells.getRunLengthH(3,64),2);
+        assertEquals(GameOutcome.evaluate(cells,1),GameOutcome.CASCADE_AVAILABLE);
+        cells.getCell(3,65).setValue(1);
+        cells.consumeMatchingLines(cells.getCell(3,65));
+        assertEquals(cells.getCell(3,65).getValue(),2);
+        assertEquals(cells.getCell(3,63).getValue(),0);
+        assertEquals(cells.getCell(3,65).getRowIndex(),3);
+        assertEquals(cells.getCell(3,65).getColumnIndex(),65);
+
+        CellCollection restored = CellCollection.deserialize(cells.serialize());
+        assertEquals(restored.getDimension(),new BoardDimension(4,70));
+        assertEquals(restored.getCell(3,65).getValue(),2);
+
+        cells.setLocation(-0.5,-0.5);
+        assertTrue(cells.getDimension().contains(cells.getSelectedCell().getRowIndex(),cells.getSelectedCell().getColumnIndex()));
+    }
+
+
+    public void testIsValid() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        cells.getCell(0,0).setValue(12);
+        assertTrue(CellCollection.isValid(cells.serialize(),CellCollection.DATA_VERSION_1));
+        assertTrue(CellCollection.isValid("version: 1\n0|-|1|3|1,2,|0|",CellCollection.DATA_VERSION_1));
+        assertFalse(CellCollection.isValid("version: 1\n0|x|1|",CellCollection.DATA_VERSION_1));
+
+        CellCollection large = CellCollection.createEmpty(new BoardDimension(5,7));
+        assertTrue(CellCollection.isValid(large.serialize(),CellCollection.DATA_VERSION_2));
+    }
+
+    public void testSpawnStateIsSaved() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        cells.setSeed(42);
+        cells.popNext();
+        CellCollection restored = CellCollection.deserialize(cells.serialize());
+
+        assertEquals(cells.getSpawnState(), restored.getSpawnState());
+        assertTrue(CellCollection.isValid(cells.serialize(), CellCollection.DATA_VERSION_1));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(cells.popNext(), restored.popNext());
+        }
+    }
+
+    public void testSplitMix64Jump() throws Exception {
+        SplitMix64 stepped = new SplitMix64(7);
+        SplitMix64 jumped = new SplitMix64(7);
+        for (int i = 0; i < 1000; i++) {
+            stepped.nextInt(3);
+        }
+        jumped.jump(1000);
+        assertEquals(stepped.nextLong(), jumped.nextLong());
+
+        jumped.jump(-1001);
+        assertEquals(new SplitMix64(7).nextLong(), jumped.nextLong());
+
+        int[] counts = new int[3];
+        for (int i = 0; i < 30000; i++) {
+            counts[stepped.nextInt(3)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 9500 && count < 10500);
+        }
+    }
+
+    public void testLookahead() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        cells.mNUnlocked = 4;
+        cells.setSeed(3);
+        cells.setLookahead(CellCollection.MAX_LOOKAHEAD);
+
+        // tiles come in the order previewed, also across the end of the ring buffer
+        int[] preview = new int[CellCollection.MAX_LOOKAHEAD];
+        for (int move = 0; move < 40; move++) {
+            assertEquals(CellCollection.MAX_LOOKAHEAD, cells.getNext(preview));
+            assertEquals(preview[0], cells.getNext());
+            assertEquals(preview[0], cells.popNext());
+            for (int i = 0; i < CellCollection.MAX_LOOKAHEAD - 1; i++) {
+                assertEquals(preview[i + 1], cells.getNext(i));
+            }
+        }
+
+        CellCollection restored = CellCollection.deserialize(cells.serialize());
+        assertEquals(CellCollection.MAX_LOOKAHEAD, restored.getLookahead());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(cells.popNext(), restored.popNext());
+        }
+
+        cells.setLookahead(1);
+        assertEquals(1, cells.getNextCount());
+        try {
+            cells.setLookahead(CellCollection.MAX_LOOKAHEAD + 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testUniformSpawnWeights() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        cells.mNUnlocked = 5;
+        cells.setLookahead(CellCollection.MAX_LOOKAHEAD);
+        cells.setSeed(9);
+        cells.resetNext();
+        // same tiles as drawn before there were spawn weights
+        SplitMix64 rand = new SplitMix64(9);
+        for (int i = 0; i < CellCollection.MAX_LOOKAHEAD; i++) {
+            assertEquals(3 * rand.nextInt(5) + 1, cells.getNext(i));
+        }
+        assertEquals(0.2, cells.getCandidateProbability(4), 1e-12);
+    }
+
+    public void testSpawnWeights() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        cells.mNUnlocked = 3;
+        cells.setSpawnWeights(new SpawnWeights.Geometric(0.5));
+        assertEquals(4 / 7.0, cells.getCandidateProbability(0), 1e-12);
+        assertEquals(1 / 7.0, cells.getCandidateProbability(2), 1e-12);
+        cells.mNUnlocked = 4;
+        assertEquals(1 / 15.0, cells.getCandidateProbability(3), 1e-12);
+
+        AliasSampler sampler = new AliasSampler();
+        sampler.build(new SpawnWeights() {
+            @Override
+            public double weight(int chain, int unlocked) {
+                return chain == 1 ? 0 : chain + 1;
+            }
+        }, 4);
+        SplitMix64 rand = new SplitMix64(5);
+        int[] counts = new int[4];
+        for (int i = 0; i < 80000; i++) {
+            counts[sampler.sample(rand)]++;
+        }
+        assertEquals(0, counts[1]);
+        assertTrue(counts[0] > 9500 && counts[0] < 10500);
+        assertTrue(counts[2] > 29000 && counts[2] < 31000);
+        assertTrue(counts[3] > 39000 && counts[3] < 41000);
+
+        try {
+            cells.setSpawnWeights(new SpawnWeights.Geometric(0));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+
+    public void testSnapshot() throws Exception {
+        CellCollection cells = CellCollection.createEmpty();
+        cells.setSeed(4);
+        cells.resetNext();
+        cells.getCell(2, 3).setValue(1);
+        BoardSnapshot first = cells.snapshot();
+
+        cells.getCell(2, 4).setValue(1);
+        cells.getCell(2, 5).setValue(1);
+        cells.consumeMatchingLines(cells.getCell(2, 5));
+        cells.popNext();
+        BoardSnapshot second = cells.snapshot();
+        // only the row of the move is copied
+        for (int row = 0; row < 9; row++) {
+            assertEquals(row != 2, first.mValueRows[row] == second.mValueRows[row]);
+        }
+        assertEquals(2, second.getDifferences(first, null));
+
+        cells.getCell(7, 7).setValue(4);
+        cells.setLookahead(5);
+        cells.restore(first);
+        assertEquals(first.getHash(), cells.getHash());
+        assertEquals(CellCollection.DEFAULT_LOOKAHEAD, cells.getLookahead());
+        assertEquals(1, cells.getCell(2, 3).getValue());
+        assertEquals(0, cells.getCell(7, 7).getValue());
+        assertEquals(0, cells.getScore());
+
+        // the same board as fresh, also for another collection
+        CellCollection other = CellCollection.createEmpty();
+        other.restore(second);
+        cells.restore(second);
+        assertEquals(second.getHash(), other.getHash());
+        assertEquals(cells.popNext(), other.popNext());
+        assertEquals(cells.serialize(), other.serialize());
+    }
+}
\ No newline at end of file
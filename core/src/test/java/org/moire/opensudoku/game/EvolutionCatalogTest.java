@@ -0,0 +1,87 @@
+package org.moire.opensudoku.game;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+public class EvolutionCatalogTest extends TestCase {
+
+    public void testDefaultCatalog() throws Exception {
+        EvolutionCatalog catalog = EvolutionCatalog.getDefault();
+        assertEquals(13, catalog.getChainCount());
+        assertEquals(40, catalog.getValueCount());
+        assertEquals("", catalog.getEmoji(0));
+        assertEquals("🐣", catalog.getEmoji(1));
+
+        // chains of three, the last tile of each unlocks the next chain
+        for (int value = 1; value < catalog.getValueCount(); value++) {
+            assertEquals(value % 3 == 0 ? 0 : value + 1, catalog.getNextTier(value));
+            assertEquals(value % 3 == 0 && value < 39 ? value / 3 : 0, catalog.getUnlockedChain(value));
+        }
+        assertEquals(4, catalog.getChainStart(1));
+        assertEquals(300, catalog.getScore(30));
+        assertEquals(1000, catalog.getScore(31));
+        assertEquals(20000, catalog.getScore(35));
+        assertEquals(300000, catalog.getScore(39));
+    }
+
+    public void testCustomCatalog() throws Exception {
+        EvolutionCatalog catalog = EvolutionCatalog.parse(new StringReader(
+                "# two chains\n"
+                + "short |   | a 5 | b 7\n"
+                + "\n"
+                + "long  | a | c 1 | d 2 | e 3 | f 4\n"));
+        assertEquals(7, catalog.getValueCount());
+        assertEquals(3, catalog.getChainStart(1));
+        assertEquals(0, catalog.getNextTier(2));
+        assertEquals(6, catalog.getNextTier(5));
+
+        CellCollection cells = CellCollection.createEmpty(BoardDimension.DEFAULT, catalog);
+        assertEquals("a", cells.getUnlockedEmojisString());
+        cells.getCell(1, 1).setValue(1);
+        cells.getCell(2, 1).setValue(1);
+        cells.getCell(3, 1).setValue(1);
+        cells.consumeMatchingLines(cells.getCell(1, 1));
+
+        assertEquals(2, cells.getCell(1, 1).getValue());
+        assertEquals(0, cells.getCell(2, 1).getValue());
+        assertEquals(15, cells.getScore());
+        // unlocked by the first tile of the chain before
+        assertEquals("ac", cells.getUnlockedEmojisString());
+        assertEquals(3, cells.getCandidate(1));
+
+        CellCollection restored = CellCollection.deserialize(cells.serialize(), catalog);
+        assertSame(catalog, restored.getEvolutionCatalog());
+        assertEquals(cells.serialize(), restored.serialize());
+        assertEquals("ac", restored.getUnlockedEmojisString());
+    }
+
+    public void testBadCatalog() throws Exception {
+        String[] bad = {
+                "",
+                "first | | a 1 | b x",
+                "first | | a",
+                "first | b | a 1",
+                "first | | a 1\nsecond | c | b 1 | c 2",
+                "first | | a 1\nsecond | | a 2",
+                "first | | a 1\nsecond | zzz | b 1",
+        };
+        // one more tile than values fit the masks of the groups
+        StringBuilder tooMany = new StringBuilder();
+        for (int chain = 0; chain <= EvolutionCatalog.MAX_VALUE / 3; chain++) {
+            tooMany.append("c").append(chain).append(" | | a").append(chain).append(" 1 | b")
+                    .append(chain).append(" 2 | c").append(chain).append(" 3\n");
+        }
+        bad = Arrays.copyOf(bad, bad.length + 1);
+        bad[bad.length - 1] = tooMany.toString();
+        for (String text : bad) {
+            try {
+                EvolutionCatalog.parse(new StringReader(text));
+                fail(text);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
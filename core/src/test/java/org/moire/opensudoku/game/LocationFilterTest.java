@@ -0,0 +1,69 @@
+package org.moire.opensudoku.game;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public class LocationFilterTest extends TestCase {
+
+    private static double lat(double cellY) {
+        return cellY * World.CELL_WIDTH_M / 111111.0;
+    }
+
+    private static double lon(double cellX) {
+        return cellX * World.CELL_WIDTH_M / 60000.0;
+    }
+
+    public void testJitterAtBorder() throws Exception {
+        LocationFilter filter = new LocationFilter(3);
+        assertTrue(filter.update(lat(5.5), lon(0.9), 5, 0));
+        assertEquals(0, filter.getCellX());
+        assertEquals(5, filter.getCellY());
+
+        // standing on the border between x 0 and 1 with 3 m noise, selection must not flicker
+        Random rand = new Random(4);
+        int changes = 0;
+        for (int i = 1; i <= 300; i++) {
+            double x = 1.0 + rand.nextGaussian() * 0.3;
+            if (filter.update(lat(5.5), lon(x), 5, i * 1000L)) {
+                changes++;
+            }
+        }
+        assertTrue("changes: " + changes, changes <= 2);
+
+        // walking east does change the cell, one step at a time
+        changes = 0;
+        for (int i = 0; i < 60; i++) {
+            if (filter.update(lat(5.5), lon(1.0 + i * 0.15), 5, 301000L + i * 1000L)) {
+                changes++;
+            }
+        }
+        assertTrue(filter.getCellX() >= 7);
+        assertTrue("changes: " + changes, changes <= 9);
+        assertEquals(5, filter.getCellY());
+    }
+
+
+    public void testSampling() throws Exception {
+        SamplingPolicy policy = new SamplingPolicy();
+
+        // standing in the middle of a cell
+        assertTrue(policy.update(0, 8));
+        assertEquals(SamplingPolicy.MAX_INTERVAL_MS, policy.getInterval());
+        assertEquals(4f, policy.getDistance());
+        assertFalse(policy.update(0.1, 8.5));
+
+        // walking towards the border
+        assertTrue(policy.update(1.5, 6));
+        assertEquals(1600, policy.getInterval());
+        assertTrue(policy.update(1.5, 0.5));
+        assertEquals(SamplingPolicy.MIN_INTERVAL_MS, policy.getInterval());
+        assertEquals(SamplingPolicy.MIN_DISTANCE_M, policy.getDistance());
+
+        // filter reports how far the next cell is
+        LocationFilter filter = new LocationFilter(3);
+        filter.update(lat(0.5), lon(0.25), 5, 0);
+        assertEquals(5.5, filter.getEdgeDistance(), 1e-6);
+        assertEquals(0, filter.getSpeed(), 1e-9);
+    }
+}
@@ -0,0 +1,83 @@
+package org.moire.opensudoku.game;
+
+import junit.framework.TestCase;
+
+/**
+ * Created by Jack on 22/06/2017.
+ */
+public class SudokuGameTest extends TestCase {
+    public void testSerialiseUnserialise() throws Exception {
+        StateBundle bundle = new MapStateBundle();
+        SudokuGame game1 = SudokuGame.createEmptyGame();
+        game1.saveState(bundle);
+        SudokuGame game2 = SudokuGame.createEmptyGame();
+        game2.restoreState(bundle);
+    }
+
+    public void testTilesFollowGameId() throws Exception {
+        SudokuGame game1 = SudokuGame.createEmptyGame();
+        game1.setId(12);
+        game1.start();
+        SudokuGame game2 = SudokuGame.createEmptyGame();
+        game2.setId(12);
+        game2.start();
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(game1.getCells().popNext(), game2.getCells().popNext());
+        }
+    }
+
+
+    public void testSnapshotUndo() throws Exception {
+        SudokuGame game = SudokuGame.createEmptyGame();
+        game.setId(5);
+        game.setSnapshotUndo(true);
+        game.start();
+        CellCollection cells = game.getCells();
+        cells.mCheatMode = 1;
+
+        long[] hashes = new long[31];
+        int[] scores = new int[31];
+        SplitMix64 rand = new SplitMix64(1);
+        for (int move = 0; move < 30; move++) {
+            hashes[move] = cells.getHash();
+            scores[move] = cells.getScore();
+            int index = rand.nextInt(cells.getCellCount());
+            while (cells.getCell(index / 9, index % 9).getValue() != 0) {
+                index = (index + 1) % cells.getCellCount();
+            }
+            game.setCellValue(cells.getCell(index / 9, index % 9), 0);
+            if (move == 19) {
+                game.setUndoCheckpoint();
+            }
+        }
+        hashes[30] = cells.getHash();
+
+        assertEquals(hashes[25], game.getSnapshot(5).getHash());
+        BoardSnapshot now = game.getSnapshot(0);
+        BoardSnapshot before = game.getSnapshot(5);
+        int[] differences = new int[cells.getCellCount()];
+        int count = now.getDifferences(before, differences);
+        assertTrue(count > 0);
+        int i = 0;
+        for (int index = 0; index < cells.getCellCount(); index++) {
+            if (now.getValue(index / 9, index % 9) != before.getValue(index / 9, index % 9)) {
+                assertEquals(index, differences[i++]);
+            }
+        }
+        assertEquals(count, i);
+
+        game.undo();
+        assertEquals(hashes[29], cells.getHash());
+        assertEquals(scores[29], cells.getScore());
+        game.undoToCheckpoint();
+        assertEquals(hashes[20], cells.getHash());
+        assertEquals(scores[20], cells.getScore());
+        // the checkpoint stays until undone past it
+        assertTrue(game.hasUndoCheckpoint());
+        game.undoToCheckpoint();
+        assertEquals(hashes[0], cells.getHash());
+        assertFalse(game.hasUndoCheckpoint());
+        assertFalse(game.hasSomethingToUndo());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package org.moire.opensudoku.game;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+public class TileIndexTest extends TestCase {
+
+    public void testKeys() throws Exception {
+        int[] coords = {Integer.MIN_VALUE, -100000, -1, 0, 1, 7, 100000, Integer.MAX_VALUE};
+        for (int x : coords) {
+            for (int y : coords) {
+                long key = TileIndex.key(x, y);
+                assertEquals(x, TileIndex.x(key));
+                assertEquals(y, TileIndex.y(key));
+            }
+        }
+        // squares of the quadtree are contiguous in key order
+        long first = TileIndex.key(-2, 4);
+        assertEquals(first + 1, TileIndex.key(-1, 4));
+        assertEquals(first + 2, TileIndex.key(-2, 5));
+        assertEquals(first + 3, TileIndex.key(-1, 5));
+        // and the order holds across the sign of the keys
+        assertTrue(TileIndex.key(Integer.MIN_VALUE, Integer.MIN_VALUE) < TileIndex.key(-1, -1));
+        assertTrue(TileIndex.key(-1, -1) < TileIndex.key(0, 0));
+        assertTrue(TileIndex.key(0, 0) < TileIndex.key(Integer.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    public void testRanges() throws Exception {
+        Random rand = new Random(12);
+        for (int t = 0; t < 200; t++) {
+            int minX = rand.nextInt(200) - 100;
+            int minY = rand.nextInt(200) - 100;
+            int maxX = minX + rand.nextInt(40);
+            int maxY = minY + rand.nextInt(40);
+            long[] ranges = TileIndex.ranges(minX, minY, maxX, maxY);
+            assertTrue(ranges.length <= 50);
+            for (int i = 0; i + 2 < ranges.length; i += 2) {
+                assertTrue(ranges[i + 1] + 1 < ranges[i + 2]);
+            }
+
+            // every cell of the box is covered, nothing too far from it is
+            int margin = (Math.max(maxX - minX, maxY - minY) + 2) / 2;
+            for (int x = minX - 2 * margin; x <= maxX + 2 * margin; x++) {
+                for (int y = minY - 2 * margin; y <= maxY + 2 * margin; y++) {
+                    boolean covered = covers(ranges, TileIndex.key(x, y));
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        assertTrue(covered);
+                    } else if (x < minX - margin || x > maxX + margin || y < minY - margin || y > maxY + margin) {
+                        assertFalse(covered);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean covers(long[] ranges, long key) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (key >= ranges[i] && key <= ranges[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,60 @@
+package org.moire.opensudoku.game;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TraceTest extends TestCase {
+
+    public void testRecordReplay() throws Exception {
+        SudokuGame game = SudokuGame.createEmptyGame();
+        CellCollection cells = game.getCells();
+        final Map<Long, byte[]> chunks = new HashMap<Long, byte[]>();
+        World world = new World(cells, new ChunkLoader() {
+            @Override
+            public void load(long key, Callback callback) {
+                callback.onChunkLoaded(key, chunks.get(key), chunks.isEmpty());
+            }
+
+            @Override
+            public void save(long key, byte[] values) {
+                chunks.put(key, values);
+            }
+        });
+        LocationFilter filter = new LocationFilter(LocationFilter.DEFAULT_HYSTERESIS_M);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TraceRecorder recorder = new TraceRecorder(out, cells, 0);
+        game.setTraceRecorder(recorder);
+
+        // walk east in a straight line, tapping every cell passed
+        Random rand = new Random(5);
+        for (int i = 0; i < 400; i++) {
+            long time = i * 1000L;
+            double lat = 0.00035 + rand.nextGaussian() * 0.00001;
+            double lon = 0.0001 + i * 0.000025;
+            recorder.onFix(time, lat, lon, 5, time);
+            if (filter.update(lat, lon, 5, time)) {
+                world.setCell(filter.getCellX(), filter.getCellY());
+            }
+            Cell selected = cells.getSelectedCell();
+            if (selected != null && i % 3 == 0) {
+                game.setCellValue(selected, 0);
+            }
+        }
+        recorder.close();
+        assertNull(recorder.getError());
+        assertTrue(cells.getFilledCount() > 0);
+
+        TraceReplayer.Report report = TraceReplayer.replay(new ByteArrayInputStream(out.toByteArray()), 0);
+        assertEquals(400, report.fixCount);
+        assertEquals(134, report.tapCount);
+        assertEquals(400, report.fixLatencies.length);
+        assertTrue(report.redrawCount > 0);
+        assertEquals(cells.getHash(), report.finalHash);
+    }
+}
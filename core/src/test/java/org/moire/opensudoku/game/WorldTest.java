@@ -0,0 +1,186 @@
+package org.moire.opensudoku.game;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class WorldTest extends TestCase {
+
+    // Keeps chunks in memory, loads complete when run() is called.
+    private static class MemoryLoader implements ChunkLoader {
+        Map<Long, byte[]> stored = new HashMap<Long, byte[]>();
+        List<Runnable> pending = new ArrayList<Runnable>();
+        boolean failing;
+
+        @Override
+        public void load(final long key, final Callback callback) {
+            final byte[] values = stored.get(key);
+            final boolean empty = stored.isEmpty();
+            final boolean failed = failing;
+            pending.add(new Runnable() {
+                @Override
+                public void run() {
+                    if (failed) {
+                        callback.onChunkLoadFailed(key);
+                    } else {
+                        callback.onChunkLoaded(key, values == null ? null : values.clone(), empty);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void save(long key, byte[] values) {
+            stored.put(key, values);
+        }
+
+        void run() {
+            for (Runnable r : pending) {
+                r.run();
+            }
+            pending.clear();
+        }
+    }
+
+    public void testChunks() throws Exception {
+        MemoryLoader loader = new MemoryLoader();
+        CellCollection cells = CellCollection.createEmpty();
+        cells.getCell(0, 0).setValue(1);
+        World world = new World(cells, loader);
+
+        // first chunk takes over the board, no cell is selected until it arrives
+        world.setLocation(0.0001, 0.0001);
+        assertNull(cells.getSelectedCell());
+        loader.run();
+        assertTrue(world.isLoaded());
+        assertNotNull(cells.getSelectedCell());
+        assertEquals(1, cells.getCell(0, 0).getValue());
+        long home = world.getChunkKey();
+
+        // unvisited chunk is empty
+        world.setLocation(-1.0, -1.0);
+        loader.run();
+        assertTrue(world.getChunkKey() != home);
+        assertTrue(World.chunkY(world.getChunkKey()) < 0);
+        assertTrue(cells.isEmpty());
+        cells.getCell(4, 4).setValue(2);
+        long away = world.getChunkKey();
+
+        // visited chunk comes back from memory at once
+        world.setLocation(0.0001, 0.0001);
+        assertEquals(home, world.getChunkKey());
+        assertEquals(1, cells.getCell(0, 0).getValue());
+        assertEquals(0, cells.getCell(4, 4).getValue());
+
+        world.flush();
+        assertEquals(1, loader.stored.get(home)[0]);
+        assertEquals(2, loader.stored.get(away)[4 * 9 + 4]);
+
+        // another board sees the saved chunks
+        CellCollection other = CellCollection.createEmpty();
+        World otherWorld = new World(other, loader);
+        otherWorld.setLocation(-1.0, -1.0);
+        loader.run();
+        assertEquals(away, otherWorld.getChunkKey());
+        assertEquals(2, other.getCell(4, 4).getValue());
+    }
+
+    public void testBoardIsTakenOverOnce() throws Exception {
+        MemoryLoader loader = new MemoryLoader();
+        CellCollection cells = CellCollection.createEmpty();
+        cells.getCell(0, 0).setValue(1);
+        World world = new World(cells, loader);
+        world.setLocation(0.0001, 0.0001);
+        loader.run();
+        world.flush();
+
+        // next start: the saved board is the chunk last on it, other chunks stay empty
+        World restarted = new World(cells, loader);
+        restarted.setLocation(-1.0, -1.0);
+        loader.run();
+        assertTrue(restarted.isLoaded());
+        assertTrue(cells.isEmpty());
+    }
+
+    public void testUndoStaysInChunk() throws Exception {
+        MemoryLoader loader = new MemoryLoader();
+        final SudokuGame game = SudokuGame.createEmptyGame();
+        game.setSnapshotUndo(true);
+        game.start();
+        CellCollection cells = game.getCells();
+        World world = new World(cells, loader);
+        world.setOnChunkChangeListener(new World.OnChunkChangeListener() {
+            @Override
+            public void onChunkChanged(long key) {
+                game.clearUndo();
+            }
+        });
+
+        world.setLocation(0.0001, 0.0001);
+        loader.run();
+        long home = world.getChunkKey();
+        Cell cell = cells.getSelectedCell();
+        game.setCellValue(cell, 0);
+        int value = cell.getValue();
+        assertTrue(value != 0);
+
+        world.setLocation(-1.0, -1.0);
+        loader.run();
+        long awayKey = world.getChunkKey();
+        // the move made in the other chunk is not undone over this one
+        assertFalse(game.hasSomethingToUndo());
+        game.undo();
+        assertTrue(cells.isEmpty());
+        Cell away = cells.getSelectedCell();
+        game.setCellValue(away, 0);
+        int awayValue = away.getValue();
+        assertTrue(awayValue != 0);
+
+        world.setLocation(0.0001, 0.0001);
+        assertEquals(home, world.getChunkKey());
+        assertEquals(value, cell.getValue());
+        world.flush();
+        assertEquals(value, loader.stored.get(home)[cell.getIndex()]);
+        assertEquals(awayValue, loader.stored.get(awayKey)[away.getIndex()]);
+        assertEquals(1, countTiles(loader.stored.get(awayKey)));
+    }
+
+    private static int countTiles(byte[] values) {
+        int count = 0;
+        for (byte value : values) {
+            if (value != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void testFailedLoadIsNotSavedOver() {
+        MemoryLoader loader = new MemoryLoader();
+        CellCollection cells = CellCollection.createEmpty();
+        World world = new World(cells, loader);
+        loader.failing = true;
+        world.setLocation(-1.0, -1.0);
+        long key = world.getChunkKey();
+        byte[] stored = new byte[cells.getCellCount()];
+        stored[0] = 2;
+        loader.stored.put(key, stored);
+
+        // the stored chunk is neither shown as empty nor saved over
+        loader.run();
+        assertFalse(world.isLoaded());
+        assertNull(cells.getSelectedCell());
+        world.flush();
+        assertSame(stored, loader.stored.get(key));
+
+        // the next location asks for the chunk again
+        loader.failing = false;
+        world.setLocation(-1.0, -1.0);
+        loader.run();
+        assertTrue(world.isLoaded());
+        assertEquals(2, cells.getCell(0, 0).getValue());
+    }
+}
@@ -0,0 +1,148 @@
+package org.moire.opensudoku.sim;
+
+import junit.framework.TestCase;
+
+import org.moire.opensudoku.game.BoardDimension;
+import org.moire.opensudoku.game.CellCollection;
+import org.moire.opensudoku.game.Clock;
+import org.moire.opensudoku.game.EvolutionCatalog;
+
+public class MoveAdvisorTest extends TestCase {
+
+    // Time stands still, so the search goes as deep as it may.
+    private static final Clock STOPPED = new Clock() {
+        @Override
+        public long uptimeMillis() {
+            return 0;
+        }
+    };
+
+    private CellCollection playedBoard(BoardDimension dimension, int moves) {
+        return new Simulator(PlacementPolicy.Policy.RANDOM, dimension, moves).play(Simulator.gameSeed(5, 0));
+    }
+
+    public void testOneTileAheadIsImmediateGain() {
+        CellCollection cells = playedBoard(BoardDimension.DEFAULT, 30);
+        MoveAdvisor.Advice advice = new MoveAdvisor(BoardDimension.DEFAULT, STOPPED)
+                .advise(MoveAdvisor.Position.of(cells), 0);
+
+        assertEquals(1, advice.getDepth());
+        MoveEvaluator evaluator = new MoveEvaluator(BoardDimension.DEFAULT, EvolutionCatalog.getDefault());
+        evaluator.load(cells);
+        for (int i = 0; i < cells.getCellCount(); i++) {
+            if (evaluator.isEmpty(i)) {
+                assertEquals(evaluator.gain(i, cells.getNext()), advice.getScore(i), 0);
+            } else {
+                assertTrue(Float.isNaN(advice.getScore(i)));
+            }
+        }
+    }
+
+    public void testTableDoesNotChangeResult() {
+        BoardDimension dimension = new BoardDimension(3, 3);
+        CellCollection cells = playedBoard(dimension, 2);
+        MoveAdvisor.Position position = MoveAdvisor.Position.of(cells);
+
+        MoveAdvisor reused = new MoveAdvisor(dimension, STOPPED);
+        MoveAdvisor.Advice first = reused.advise(position, 1);
+        MoveAdvisor.Advice second = reused.advise(position, 1);
+        MoveAdvisor.Advice fresh = new MoveAdvisor(dimension, STOPPED).advise(position, 1);
+
+        assertEquals(MoveAdvisor.MAX_DEPTH, first.getDepth());
+        assertTrue(second.getNodes() < first.getNodes());
+        for (int i = 0; i < cells.getCellCount(); i++) {
+            assertEquals(first.getScore(i), second.getScore(i), 0);
+            assertEquals(first.getScore(i), fresh.getScore(i), 0);
+        }
+    }
+
+    public void testHeatMap() {
+        CellCollection cells = playedBoard(BoardDimension.DEFAULT, 30);
+        MoveAdvisor.Advice advice = new MoveAdvisor(BoardDimension.DEFAULT, Clock.SYSTEM)
+                .advise(MoveAdvisor.Position.of(cells), MoveAdvisor.DEFAULT_BUDGET_MS);
+        float[] heat = advice.getHeatMap();
+
+        assertEquals(1f, heat[advice.getBestIndex()], 0);
+        for (int i = 0; i < heat.length; i++) {
+            assertTrue(Float.isNaN(heat[i]) || (heat[i] >= 0 && heat[i] <= 1));
+        }
+    }
+
+    public void testParallelSearchMatchesSingleThread() {
+        CellCollection cells = playedBoard(BoardDimension.DEFAULT, 30);
+        MoveAdvisor.Position position = MoveAdvisor.Position.of(cells);
+        MoveAdvisor single = new MoveAdvisor(BoardDimension.DEFAULT, STOPPED);
+        MoveAdvisor parallel = new MoveAdvisor(BoardDimension.DEFAULT, STOPPED, 4);
+        try {
+            MoveAdvisor.Advice expected = single.advise(position, 1, 2);
+            MoveAdvisor.Advice actual = parallel.advise(position, 1, 2);
+
+            assertEquals(2, actual.getDepth());
+            for (int i = 0; i < cells.getCellCount(); i++) {
+                assertEquals(expected.getScore(i), actual.getScore(i), 0);
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    public void testCancel() throws InterruptedException {
+        final MoveAdvisor advisor = new MoveAdvisor(BoardDimension.DEFAULT, STOPPED, 2);
+        Thread canceller = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                advisor.cancel();
+            }
+        };
+        canceller.start();
+        try {
+            // would take hours without cancelling
+            MoveAdvisor.Advice advice = advisor.advise(MoveAdvisor.Position.of(playedBoard(BoardDimension.DEFAULT, 30)), 1);
+
+            assertTrue(advice.getDepth() >= 1);
+            assertTrue(advice.getDepth() < MoveAdvisor.MAX_DEPTH);
+        } finally {
+            canceller.join();
+            advisor.shutdown();
+        }
+    }
+
+    public void testPreviewedTileIsKnown() {
+        // two chains unlocked, so the second tile is left to chance unless previewed
+        CellCollection cells = new Simulator(PlacementPolicy.Policy.LOOKAHEAD, BoardDimension.DEFAULT, 60)
+                .play(Simulator.gameSeed(5, 0));
+        cells.setLookahead(2);
+        MoveAdvisor.Position known = MoveAdvisor.Position.of(cells);
+        cells.setLookahead(1);
+        MoveAdvisor.Position unknown = MoveAdvisor.Position.of(cells);
+        MoveAdvisor advisor = new MoveAdvisor(BoardDimension.DEFAULT, STOPPED);
+        MoveAdvisor.Advice advice = advisor.advise(known, 1, 2);
+        MoveAdvisor.Advice guess = advisor.advise(unknown, 1, 2);
+
+        // the second tile is placed where it gains most, as the search does one tile ahead
+        MoveEvaluator first = new MoveEvaluator(BoardDimension.DEFAULT, EvolutionCatalog.getDefault());
+        MoveEvaluator second = new MoveEvaluator(BoardDimension.DEFAULT, EvolutionCatalog.getDefault());
+        first.load(cells);
+        for (int i = 0; i < cells.getCellCount(); i++) {
+            if (!first.isEmpty(i)) {
+                continue;
+            }
+            float expected = first.gain(i, known.mQueue[0]);
+            second.loadFrom(first);
+            int best = 0;
+            for (int j = 0; j < second.getCellCount(); j++) {
+                if (second.isEmpty(j) && second.neighbours(j, known.mQueue[1]) > 0) {
+                    best = Math.max(best, second.gain(j, known.mQueue[1]));
+                }
+            }
+            expected += best;
+            assertEquals(expected, advice.getScore(i), 1e-3f);
+        }
+        assertTrue(advice.getBestIndex() != guess.getBestIndex());
+    }
+}
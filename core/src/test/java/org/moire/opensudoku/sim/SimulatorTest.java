@@ -0,0 +1,40 @@
+package org.moire.opensudoku.sim;
+
+import junit.framework.TestCase;
+
+import org.moire.opensudoku.game.BoardDimension;
+import org.moire.opensudoku.game.CellCollection;
+
+public class SimulatorTest extends TestCase {
+
+    public void testRunDoesNotDependOnThreads() {
+        Simulator simulator = new Simulator(PlacementPolicy.Policy.GREEDY, BoardDimension.DEFAULT, 1000);
+        SimulationResult one = simulator.run(40, 7, 1);
+        SimulationResult four = simulator.run(40, 7, 4);
+
+        assertEquals(40, one.getGames());
+        assertEquals(one.getMoves(), four.getMoves());
+        for (int p = 0; p <= 100; p += 10) {
+            assertEquals(one.getScore(p), four.getScore(p));
+            assertEquals(one.getLength(p), four.getLength(p));
+        }
+    }
+
+    public void testGameEndsOnFullBoard() {
+        for (PlacementPolicy.Policy policy : PlacementPolicy.Policy.values()) {
+            Simulator simulator = new Simulator(policy, new BoardDimension(5, 5), Simulator.DEFAULT_MAX_MOVES);
+            CellCollection cells = simulator.play(Simulator.gameSeed(3, 0));
+
+            assertEquals(policy.toString(), cells.getCellCount(), cells.getFilledCount());
+            assertEquals(policy.toString(), cells.getHash(), simulator.play(Simulator.gameSeed(3, 0)).getHash());
+        }
+    }
+
+    public void testMoveLimit() {
+        Simulator simulator = new Simulator(PlacementPolicy.Policy.RANDOM, BoardDimension.DEFAULT, 10);
+        SimulationResult result = simulator.run(5, 1, 2);
+
+        assertEquals(50, result.getMoves());
+        assertEquals(5, result.getCappedGames());
+    }
+}